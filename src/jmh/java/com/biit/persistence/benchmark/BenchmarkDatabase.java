@@ -0,0 +1,52 @@
+package com.biit.persistence.benchmark;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+
+/**
+ * Creates an in memory H2 database with the benchmark entities.
+ */
+public final class BenchmarkDatabase {
+    public static final int JDBC_BATCH_SIZE = 50;
+
+    private BenchmarkDatabase() {
+        // Private constructor to hide the implicit public one.
+    }
+
+    public static SessionFactory createSessionFactory(String databaseName) {
+        final Configuration configuration = new Configuration();
+        configuration.setProperty("hibernate.connection.driver_class", "org.h2.Driver");
+        configuration.setProperty("hibernate.connection.url", "jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1");
+        configuration.setProperty("hibernate.connection.username", "sa");
+        configuration.setProperty("hibernate.connection.password", "");
+        configuration.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+        configuration.setProperty("hibernate.current_session_context_class", "thread");
+        configuration.setProperty("hibernate.jdbc.batch_size", String.valueOf(JDBC_BATCH_SIZE));
+        configuration.setProperty("hibernate.order_inserts", "true");
+        configuration.setProperty("hibernate.order_updates", "true");
+        configuration.setProperty("hibernate.show_sql", "false");
+        configuration.addAnnotatedClass(BenchmarkEntity.class);
+        return configuration.buildSessionFactory();
+    }
+}
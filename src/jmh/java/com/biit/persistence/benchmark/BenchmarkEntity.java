@@ -0,0 +1,87 @@
+package com.biit.persistence.benchmark;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.persistence.entity.StorableObject;
+import com.biit.persistence.entity.exceptions.NotValidStorableObjectException;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Sample entity used by the benchmarks.
+ */
+@Entity
+@Table(name = "benchmark_entity")
+public class BenchmarkEntity extends StorableObject {
+    private static final long serialVersionUID = 2817416049462934519L;
+
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "amount")
+    private int amount;
+
+    public BenchmarkEntity() {
+        super();
+    }
+
+    public BenchmarkEntity(String name, int amount) {
+        this();
+        this.name = name;
+        this.amount = amount;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    public void setAmount(int amount) {
+        this.amount = amount;
+    }
+
+    @Override
+    public Set<StorableObject> getAllInnerStorableObjects() {
+        return new HashSet<>();
+    }
+
+    @Override
+    public void copyData(StorableObject object) throws NotValidStorableObjectException {
+        if (!(object instanceof BenchmarkEntity)) {
+            throw new NotValidStorableObjectException("Object '" + object + "' is not a BenchmarkEntity.");
+        }
+        copyBasicInfo(object);
+        name = ((BenchmarkEntity) object).getName();
+        amount = ((BenchmarkEntity) object).getAmount();
+    }
+}
@@ -0,0 +1,201 @@
+package com.biit.persistence.benchmark;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.persistence.utils.ContainerList;
+import com.biit.persistence.utils.StorableObjectProvider;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Commit of a ContainerList over H2, storing the changes in a single
+ * transaction or with one transaction by element.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CommitBenchmark {
+
+    @Param({"2000"})
+    private int rows;
+
+    @Param({"500"})
+    private int edits;
+
+    private SessionFactory sessionFactory;
+    private EntityManager entityManager;
+    private BenchmarkEntityJpaDao dao;
+
+    @Setup(Level.Trial)
+    public void createDatabase() {
+        sessionFactory = BenchmarkDatabase.createSessionFactory("commit");
+        entityManager = sessionFactory.createEntityManager();
+        dao = new BenchmarkEntityJpaDao(entityManager);
+        final List<BenchmarkEntity> elements = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            elements.add(new BenchmarkEntity("Entity " + i, i));
+        }
+        dao.inTransaction(() -> dao.makePersistentAll(elements));
+        entityManager.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void closeDatabase() {
+        entityManager.close();
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public ContainerList<BenchmarkEntity> batchedCommit() {
+        return editAndCommit(new BatchedProvider(dao));
+    }
+
+    @Benchmark
+    public ContainerList<BenchmarkEntity> elementCommit() {
+        return editAndCommit(new ElementProvider(dao));
+    }
+
+    private ContainerList<BenchmarkEntity> editAndCommit(StorableObjectProvider<BenchmarkEntity> provider) {
+        final ContainerList<BenchmarkEntity> containerList = new ContainerList<>(BenchmarkEntity.class, provider,
+                BenchmarkEntity::getComparationId);
+        for (int i = 0; i < edits; i++) {
+            final BenchmarkEntity element = containerList.get(i);
+            element.setAmount(element.getAmount() + 1);
+            containerList.update(element);
+        }
+        for (int i = 0; i < edits / 2; i++) {
+            containerList.remove(containerList.get(containerList.size() - 1));
+        }
+        for (int i = 0; i < edits / 2; i++) {
+            containerList.add(new BenchmarkEntity("New " + i, i));
+        }
+        containerList.commit();
+        entityManager.clear();
+        return containerList;
+    }
+
+    private static class BatchedProvider extends StorableObjectProvider<BenchmarkEntity> {
+        private final BenchmarkEntityJpaDao dao;
+
+        BatchedProvider(BenchmarkEntityJpaDao dao) {
+            super(dao);
+            this.dao = dao;
+        }
+
+        @Override
+        public int size() {
+            return dao.inTransaction(dao::getRowCount);
+        }
+
+        @Override
+        public List<BenchmarkEntity> get(int i, int size) {
+            return dao.inTransaction(() -> dao.getEntityManager()
+                    .createQuery("from BenchmarkEntity order by id", BenchmarkEntity.class)
+                    .setFirstResult(i).setMaxResults(size).getResultList());
+        }
+    }
+
+    /**
+     * Stores each change in its own transaction, as the default implementation
+     * of the bulk methods.
+     */
+    private static final class ElementProvider extends BatchedProvider {
+        private final BenchmarkEntityJpaDao dao;
+
+        ElementProvider(BenchmarkEntityJpaDao dao) {
+            super(dao);
+            this.dao = dao;
+        }
+
+        @Override
+        public void add(BenchmarkEntity element) {
+            dao.inTransaction(() -> {
+                super.add(element);
+                dao.getEntityManager().flush();
+                return null;
+            });
+        }
+
+        @Override
+        public void update(BenchmarkEntity element) {
+            dao.inTransaction(() -> {
+                super.update(element);
+                dao.getEntityManager().flush();
+                return null;
+            });
+        }
+
+        @Override
+        public void remove(BenchmarkEntity element) {
+            dao.inTransaction(() -> {
+                super.remove(element);
+                dao.getEntityManager().flush();
+                return null;
+            });
+        }
+
+        @Override
+        public void addAll(Collection<? extends BenchmarkEntity> elements) {
+            elements.forEach(this::add);
+        }
+
+        @Override
+        public void updateAll(Collection<? extends BenchmarkEntity> elements) {
+            elements.forEach(this::update);
+        }
+
+        @Override
+        public void removeAll(Collection<? extends BenchmarkEntity> elements) {
+            elements.forEach(this::remove);
+        }
+
+        @Override
+        public void commit(Collection<? extends BenchmarkEntity> removed,
+                           Collection<? extends BenchmarkEntity> updated,
+                           Collection<? extends BenchmarkEntity> added) {
+            removeAll(removed);
+            updateAll(updated);
+            addAll(added);
+        }
+    }
+}
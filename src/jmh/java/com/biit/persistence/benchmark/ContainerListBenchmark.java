@@ -0,0 +1,162 @@
+package com.biit.persistence.benchmark;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.persistence.utils.ContainerList;
+import com.biit.persistence.utils.IDataProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Edition, commit, sort and creation of a ContainerList over an in memory
+ * provider.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ContainerListBenchmark {
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_PAGES = 10;
+
+    @Param({"100000"})
+    private int rows;
+
+    @Param({"5000"})
+    private int edits;
+
+    private List<BenchmarkEntity> elements;
+    private ContainerList<BenchmarkEntity> containerList;
+
+    @Setup(Level.Trial)
+    public void createElements() {
+        elements = new ArrayList<>(rows);
+        final Random random = new Random(rows);
+        for (int i = 0; i < rows; i++) {
+            elements.add(new BenchmarkEntity("Entity " + random.nextInt(rows), random.nextInt(rows)));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createContainer() {
+        containerList = new ContainerList<>(BenchmarkEntity.class, new InMemoryProvider(elements), BenchmarkEntity::getComparationId);
+    }
+
+    @Benchmark
+    public ContainerList<BenchmarkEntity> editAndCommit() {
+        for (int i = 0; i < edits; i++) {
+            final BenchmarkEntity element = containerList.get(i * 2);
+            element.setAmount(element.getAmount() + 1);
+            containerList.update(element);
+        }
+        for (int i = 0; i < edits / 2; i++) {
+            containerList.remove(containerList.get(i * 2 + 1));
+        }
+        for (int i = 0; i < edits / 2; i++) {
+            containerList.add(new BenchmarkEntity("New " + i, i));
+        }
+        containerList.commit();
+        return containerList;
+    }
+
+    @Benchmark
+    public ContainerList<BenchmarkEntity> sort() {
+        containerList.sort(new Object[]{"name", "amount"}, new boolean[]{true, false});
+        return containerList;
+    }
+
+    @Benchmark
+    public BenchmarkEntity eagerFirstPage() {
+        return readFirstPage(new ContainerList<>(BenchmarkEntity.class, new InMemoryProvider(elements),
+                BenchmarkEntity::getComparationId));
+    }
+
+    @Benchmark
+    public BenchmarkEntity pagedFirstPage() {
+        return readFirstPage(new ContainerList<>(BenchmarkEntity.class, new InMemoryProvider(elements),
+                BenchmarkEntity::getComparationId, PAGE_SIZE, MAX_PAGES));
+    }
+
+    private BenchmarkEntity readFirstPage(ContainerList<BenchmarkEntity> container) {
+        BenchmarkEntity last = null;
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            last = container.get(i);
+        }
+        return last;
+    }
+
+    private static final class InMemoryProvider implements IDataProvider<BenchmarkEntity> {
+        private final List<BenchmarkEntity> elements;
+
+        private InMemoryProvider(List<BenchmarkEntity> elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public void add(BenchmarkEntity element) {
+            // Not stored.
+        }
+
+        @Override
+        public void update(BenchmarkEntity element) {
+            // Not stored.
+        }
+
+        @Override
+        public void remove(BenchmarkEntity element) {
+            // Not stored.
+        }
+
+        @Override
+        public int size() {
+            return elements.size();
+        }
+
+        @Override
+        public Collection<? extends BenchmarkEntity> get(int i, int size) {
+            return elements.subList(i, Math.min(i + size, elements.size()));
+        }
+
+        @Override
+        public BenchmarkEntity newEntity() {
+            return new BenchmarkEntity();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.biit.persistence.benchmark;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.persistence.dao.exceptions.UnexpectedEntityDatabaseException;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read operations of the DAOs over a table with 'rows' elements.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DaoBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    private SessionFactory sessionFactory;
+    private BenchmarkEntityDao dao;
+    private EntityManager entityManager;
+    private BenchmarkEntityJpaDao jpaDao;
+    private List<Long> ids;
+    private List<String> comparationIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws UnexpectedEntityDatabaseException {
+        sessionFactory = BenchmarkDatabase.createSessionFactory("dao");
+        dao = new BenchmarkEntityDao();
+        dao.setSessionFactory(sessionFactory);
+        final List<BenchmarkEntity> entities = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            entities.add(new BenchmarkEntity("Entity " + i, i));
+        }
+        dao.makePersistent(entities, BenchmarkDatabase.JDBC_BATCH_SIZE);
+        ids = new ArrayList<>();
+        comparationIds = new ArrayList<>();
+        for (BenchmarkEntity entity : entities) {
+            ids.add(entity.getId());
+            comparationIds.add(entity.getComparationId());
+        }
+        entityManager = sessionFactory.createEntityManager();
+        jpaDao = new BenchmarkEntityJpaDao(entityManager);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public List<BenchmarkEntity> getAll() throws UnexpectedEntityDatabaseException {
+        return dao.getAll();
+    }
+
+    @Benchmark
+    public BenchmarkEntity read() throws UnexpectedEntityDatabaseException {
+        return dao.read(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+    }
+
+    @Benchmark
+    public BenchmarkEntity getByComparatorId() {
+        // Without the elements in the persistence context.
+        entityManager.clear();
+        return jpaDao.getByComparatorId(comparationIds.get(ThreadLocalRandom.current().nextInt(comparationIds.size())));
+    }
+}
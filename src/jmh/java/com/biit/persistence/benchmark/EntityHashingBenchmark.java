@@ -0,0 +1,97 @@
+package com.biit.persistence.benchmark;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hash based collections of entities shared by several threads, as used by
+ * the lists and containers. Measures the cost of equals() and hashCode().
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class EntityHashingBenchmark {
+
+    @Param({"10000"})
+    private int elements;
+
+    private BenchmarkEntity[] entities;
+    private BenchmarkEntity[] copies;
+    private Map<BenchmarkEntity, Integer> concurrentMap;
+    private Set<BenchmarkEntity> readOnlySet;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        entities = new BenchmarkEntity[elements];
+        copies = new BenchmarkEntity[elements];
+        concurrentMap = new ConcurrentHashMap<>();
+        readOnlySet = new HashSet<>();
+        for (int i = 0; i < elements; i++) {
+            entities[i] = new BenchmarkEntity("Entity " + i, i);
+            // Same comparationId, different instance, as elements read again from database.
+            copies[i] = new BenchmarkEntity();
+            copies[i].copyData(entities[i]);
+            concurrentMap.put(entities[i], i);
+            readOnlySet.add(entities[i]);
+        }
+    }
+
+    @Benchmark
+    public Integer concurrentMapUpdate() {
+        final int position = ThreadLocalRandom.current().nextInt(elements);
+        return concurrentMap.put(copies[position], position);
+    }
+
+    @Benchmark
+    public boolean sharedSetContains() {
+        return readOnlySet.contains(copies[ThreadLocalRandom.current().nextInt(elements)]);
+    }
+
+    @Benchmark
+    public String uniqueNameReadable() {
+        return entities[ThreadLocalRandom.current().nextInt(elements)].getUniqueNameReadable();
+    }
+}
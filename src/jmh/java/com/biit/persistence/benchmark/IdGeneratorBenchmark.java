@@ -0,0 +1,77 @@
+package com.biit.persistence.benchmark;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.persistence.utils.IIdGenerationStrategy;
+import com.biit.persistence.utils.RandomUuidGenerationStrategy;
+import com.biit.persistence.utils.TimeOrderedUuidGenerationStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the id generation strategies with one thread and with as many
+ * threads as processors.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdGeneratorBenchmark {
+    private final IIdGenerationStrategy randomUuid = new RandomUuidGenerationStrategy();
+    private final IIdGenerationStrategy timeOrderedUuid = new TimeOrderedUuidGenerationStrategy();
+
+    @Benchmark
+    @Threads(1)
+    public String randomUuid() {
+        return randomUuid.createId();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String timeOrderedUuid() {
+        return timeOrderedUuid.createId();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String randomUuidConcurrent() {
+        return randomUuid.createId();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String timeOrderedUuidConcurrent() {
+        return timeOrderedUuid.createId();
+    }
+}
@@ -0,0 +1,150 @@
+package com.biit.persistence.benchmark;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.persistence.utils.EditableLazyList;
+import com.biit.persistence.utils.LazyList;
+import com.biit.persistence.utils.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access to the elements of LazyList and EditableLazyList over an in memory
+ * provider, to measure the overhead of the lists. The number of backend
+ * requests is counted in 'backendRequests'.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LazyListBenchmark {
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_PAGES = 10;
+    private static final int RANDOM_ACCESSES = 1000;
+
+    @Param({"100000"})
+    private int rows;
+
+    @Param({"0", "100", "1000"})
+    private int pendingEdits;
+
+    private LazyList<Integer> lazyList;
+    private EditableLazyList<Integer> editableLazyList;
+    private int[] randomPositions;
+    private long backendRequests;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        final InMemoryProvider provider = new InMemoryProvider(rows);
+        lazyList = new LazyList<>(provider, PAGE_SIZE, MAX_PAGES);
+        editableLazyList = new EditableLazyList<>(provider, PAGE_SIZE, MAX_PAGES);
+        final Random random = new Random(rows);
+        for (int i = 0; i < pendingEdits; i++) {
+            // Backend elements are even numbers. Add odd numbers and remove even ones.
+            editableLazyList.add(random.nextInt(rows) * 2 + 1);
+            if (i % 2 == 0) {
+                editableLazyList.remove(Integer.valueOf(random.nextInt(rows) * 2));
+            }
+        }
+        randomPositions = new int[RANDOM_ACCESSES];
+        for (int i = 0; i < RANDOM_ACCESSES; i++) {
+            randomPositions[i] = random.nextInt(rows);
+        }
+    }
+
+    @Benchmark
+    public void lazyListSequential(Blackhole blackhole) {
+        for (Integer element : lazyList) {
+            blackhole.consume(element);
+        }
+    }
+
+    @Benchmark
+    public void lazyListRandom(Blackhole blackhole) {
+        for (int position : randomPositions) {
+            blackhole.consume(lazyList.get(position));
+        }
+    }
+
+    @Benchmark
+    public void editableLazyListRandom(Blackhole blackhole) {
+        final int size = editableLazyList.size();
+        for (int position : randomPositions) {
+            blackhole.consume(editableLazyList.get(position % size));
+        }
+    }
+
+    /**
+     * Backend with the even numbers in [0, 2 * rows).
+     */
+    private final class InMemoryProvider implements LazyList.OrdedEntityProvider<Integer> {
+        private static final long serialVersionUID = -3493431373937497547L;
+        private final int rows;
+
+        private InMemoryProvider(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public List<Integer> getEntities(int firstRow, int total) {
+            backendRequests++;
+            final List<Integer> page = new ArrayList<>(total);
+            for (int i = firstRow; i < Math.min(firstRow + total, rows); i++) {
+                page.add(i * 2);
+            }
+            return page;
+        }
+
+        @Override
+        public List<Integer> getEntities(int firstRow, int total, String[] propertyNames, Order[] order) {
+            return getEntities(firstRow, total);
+        }
+
+        @Override
+        public int compare(Integer first, Integer second) {
+            return Integer.compare(first, second);
+        }
+
+        @Override
+        public int size() {
+            return rows;
+        }
+    }
+}
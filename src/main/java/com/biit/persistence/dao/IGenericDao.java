@@ -25,8 +25,11 @@ import com.biit.persistence.dao.exceptions.ElementCannotBePersistedException;
 import com.biit.persistence.dao.exceptions.UnexpectedEntityDatabaseException;
 import com.biit.persistence.entity.StorableObject;
 import com.biit.persistence.entity.exceptions.ElementCannotBeRemovedException;
+import com.biit.persistence.utils.CacheStatistics;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IGenericDao<T extends StorableObject> extends IStorableObjectDao {
 
@@ -38,6 +41,17 @@ public interface IGenericDao<T extends StorableObject> extends IStorableObjectDa
      */
     List<T> getAll() throws UnexpectedEntityDatabaseException;
 
+    /**
+     * Iterates over all elements stored into the database without loading
+     * the entire table into memory. Elements are retrieved in blocks of
+     * 'fetchSize' rows and are detached before being passed to the action.
+     *
+     * @param fetchSize
+     * @param action
+     * @throws UnexpectedEntityDatabaseException
+     */
+    void forEach(int fetchSize, Consumer<? super T> action) throws UnexpectedEntityDatabaseException;
+
     /**
      * Saves or update an element.
      *
@@ -56,6 +70,15 @@ public interface IGenericDao<T extends StorableObject> extends IStorableObjectDa
      */
     int getRowCount() throws UnexpectedEntityDatabaseException;
 
+    /**
+     * Gets the number of elements estimated by the database, without counting
+     * them. If not supported, returns the exact number.
+     *
+     * @return
+     * @throws UnexpectedEntityDatabaseException
+     */
+    int getApproximateRowCount() throws UnexpectedEntityDatabaseException;
+
     /**
      * Gets one element by id.
      *
@@ -65,6 +88,16 @@ public interface IGenericDao<T extends StorableObject> extends IStorableObjectDa
      */
     T read(Long id) throws UnexpectedEntityDatabaseException;
 
+    /**
+     * Gets several elements by id using a single transaction. Elements are
+     * returned in the same order as the ids.
+     *
+     * @param ids
+     * @return
+     * @throws UnexpectedEntityDatabaseException
+     */
+    List<T> readAll(Collection<Long> ids) throws UnexpectedEntityDatabaseException;
+
     /**
      * Remove all elements from database.
      *
@@ -72,6 +105,15 @@ public interface IGenericDao<T extends StorableObject> extends IStorableObjectDa
      */
     void removeAll() throws UnexpectedEntityDatabaseException;
 
+    /**
+     * Remove all elements from database in a single transaction using set
+     * based deletes when possible.
+     *
+     * @return the number of rows deleted.
+     * @throws UnexpectedEntityDatabaseException
+     */
+    int bulkRemoveAll() throws UnexpectedEntityDatabaseException;
+
     /**
      * Persists a list of objects.
      *
@@ -81,10 +123,43 @@ public interface IGenericDao<T extends StorableObject> extends IStorableObjectDa
      */
     List<T> makePersistent(List<T> entities) throws UnexpectedEntityDatabaseException;
 
+    /**
+     * Persists a list of objects sending the statements in JDBC batches of
+     * 'batchSize' elements.
+     *
+     * @param entities
+     * @param batchSize
+     * @return
+     * @throws UnexpectedEntityDatabaseException
+     */
+    List<T> makePersistent(List<T> entities, int batchSize) throws UnexpectedEntityDatabaseException;
+
     /**
      * Clear the entire 2nd level cache.
      */
     void evictAllCache();
 
+    /**
+     * Removes an element and its collections from the 2nd level cache.
+     *
+     * @param id
+     */
+    void evictCache(Long id);
+
+    /**
+     * Removes an element and its collections from the 2nd level cache.
+     *
+     * @param comparationId
+     * @throws UnexpectedEntityDatabaseException
+     */
+    void evictCacheByComparationId(String comparationId) throws UnexpectedEntityDatabaseException;
+
+    /**
+     * Usage of the 2nd level cache regions of this entity.
+     *
+     * @return
+     */
+    List<CacheStatistics> getCacheStatistics();
+
     void makeTransient(T entity) throws UnexpectedEntityDatabaseException, ElementCannotBeRemovedException;
 }
@@ -25,9 +25,27 @@ import com.biit.persistence.entity.BaseStorableObject;
 import jakarta.persistence.NoResultException;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
 
 public interface IJpaBaseStorableObjectDao<EntityClass extends BaseStorableObject, PrimaryKeyClass extends Serializable> extends
         IJpaGenericDao<EntityClass, PrimaryKeyClass> {
 
     EntityClass getByComparatorId(String comparationId) throws NoResultException;
+
+    /**
+     * Gets several elements by comparationId. Elements are returned in the
+     * same order as the comparationIds; the ones not found are skipped.
+     *
+     * @param comparationIds
+     * @return
+     */
+    List<EntityClass> getByComparatorIds(Collection<String> comparationIds);
+
+    /**
+     * Removes an element and its collections from the 2nd level cache.
+     *
+     * @param comparationId
+     */
+    void evictCacheByComparationId(String comparationId);
 }
@@ -22,10 +22,14 @@ package com.biit.persistence.dao;
  */
 
 import com.biit.persistence.entity.exceptions.ElementCannotBeRemovedException;
+import com.biit.persistence.utils.CacheStatistics;
 import jakarta.persistence.EntityManager;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public interface IJpaGenericDao<EntityClass, PrimaryKeyClass extends Serializable> {
 
@@ -35,16 +39,110 @@ public interface IJpaGenericDao<EntityClass, PrimaryKeyClass extends Serializabl
 
     EntityClass merge(EntityClass entity);
 
+    /**
+     * Persists several elements using JDBC batches and a single flush.
+     *
+     * @param entities
+     * @return
+     */
+    List<EntityClass> makePersistentAll(Collection<EntityClass> entities);
+
+    /**
+     * Merges several elements using JDBC batches and a single flush.
+     *
+     * @param entities
+     * @return the managed elements, in the same order.
+     */
+    List<EntityClass> mergeAll(Collection<EntityClass> entities);
+
+    /**
+     * Removes several elements using JDBC batches and a single flush. Not
+     * managed elements are loaded together instead of one by one.
+     *
+     * @param entities
+     * @throws ElementCannotBeRemovedException
+     */
+    void makeTransientAll(Collection<EntityClass> entities) throws ElementCannotBeRemovedException;
+
+    /**
+     * Executes the work in a transaction. If the entity manager has already a
+     * transaction (i.e. managed by the container), it is joined; if not, a
+     * resource local transaction is started and committed.
+     *
+     * @param work
+     * @param <R>
+     * @return the result of the work.
+     */
+    <R> R inTransaction(Supplier<R> work);
+
     EntityClass get(PrimaryKeyClass id);
 
+    /**
+     * Gets several elements by id. Elements are returned in the same order as
+     * the ids; ids not found are skipped.
+     *
+     * @param ids
+     * @return
+     */
+    List<EntityClass> getAll(Collection<PrimaryKeyClass> ids);
+
     int getRowCount();
 
+    /**
+     * Gets the number of elements estimated by the database, without counting
+     * them. If not supported, returns the exact number.
+     *
+     * @return
+     */
+    int getApproximateRowCount();
+
     List<EntityClass> getAll();
 
+    /**
+     * Iterates over all elements without loading the entire table into
+     * memory. Elements are retrieved in blocks of 'fetchSize' rows. If no
+     * transaction is joined, the entity manager is cleared on each block, as
+     * in {@link #forEach(int, boolean, Consumer)}. If joined, the entities of
+     * the caller are kept and each element is detached after being passed to
+     * the action. Then only the element is detached: its eager associations,
+     * and the lazy ones loaded by the action, stay in the entity manager.
+     *
+     * @param fetchSize
+     * @param action
+     */
+    void forEach(int fetchSize, Consumer<? super EntityClass> action);
+
+    /**
+     * Iterates over all elements without loading the entire table into
+     * memory. If 'clearOnBlock' is set, pending changes are flushed first and
+     * the entity manager is cleared every 'fetchSize' rows, detaching also the
+     * associations of the elements and any other entity managed by the
+     * caller.
+     *
+     * @param fetchSize
+     * @param clearOnBlock
+     * @param action
+     */
+    void forEach(int fetchSize, boolean clearOnBlock, Consumer<? super EntityClass> action);
+
     void evictAllCache();
 
     EntityManager getEntityManager();
 
     void evictCache();
 
+    /**
+     * Removes an element and its collections from the 2nd level cache.
+     *
+     * @param id
+     */
+    void evictCache(PrimaryKeyClass id);
+
+    /**
+     * Usage of the 2nd level cache regions of this entity.
+     *
+     * @return
+     */
+    List<CacheStatistics> getCacheStatistics();
+
 }
@@ -44,4 +44,22 @@ public interface IStorableObjectDao {
      */
     void deleteStorableObject(BaseStorableObject entity) throws UnexpectedEntityDatabaseException;
 
+    /**
+     * Executes the work in a transaction of the current session. If a
+     * transaction is already active, the work joins it and the owner of the
+     * transaction commits or rolls it back; if not, a new one is started and
+     * committed when the work finishes. DAO methods called inside the work
+     * join the same transaction, so several operations cost a single commit.
+     * Note that some methods (i.e. the list persistence and the iteration over
+     * all elements) flush and clear the session.
+     *
+     * @param work
+     * @param <R>
+     * @param <E>
+     * @return the result of the work.
+     * @throws E                                the exception thrown by the work.
+     * @throws UnexpectedEntityDatabaseException if the work throws a runtime exception.
+     */
+    <R, E extends Exception> R inTransaction(IUnitOfWork<R, E> work) throws E, UnexpectedEntityDatabaseException;
+
 }
@@ -0,0 +1,37 @@
+package com.biit.persistence.dao;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import org.hibernate.Session;
+
+/**
+ * Work executed inside a transaction. See
+ * {@link IStorableObjectDao#inTransaction(IUnitOfWork)}.
+ *
+ * @param <R> result of the work.
+ * @param <E> checked exception thrown by the work.
+ */
+@FunctionalInterface
+public interface IUnitOfWork<R, E extends Exception> {
+
+    R execute(Session session) throws E;
+}
@@ -26,16 +26,45 @@ import com.biit.persistence.dao.exceptions.ElementCannotBePersistedException;
 import com.biit.persistence.dao.exceptions.UnexpectedEntityDatabaseException;
 import com.biit.persistence.entity.StorableObject;
 import com.biit.persistence.entity.exceptions.ElementCannotBeRemovedException;
+import com.biit.persistence.logger.StorableObjectLogger;
+import com.biit.persistence.utils.CacheStatistics;
+import com.biit.persistence.utils.CacheUtils;
+import com.biit.persistence.utils.DialectUtils;
+import com.biit.persistence.utils.RowCountCache;
+import com.biit.persistence.utils.StorableObjectClock;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Root;
+import org.hibernate.CacheMode;
+import org.hibernate.Hibernate;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.CascadeStyle;
+import org.hibernate.engine.spi.CascadingActions;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
 
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public abstract class GenericDao<T extends StorableObject> extends StorableObjectDao<T> implements IGenericDao<T> {
     // Recommended values are [15-25]. Bigger values reduce database access but
@@ -44,6 +73,11 @@ public abstract class GenericDao<T extends StorableObject> extends StorableObjec
 
     private Class<T> type;
 
+    // If null, queries are cached only for cacheable entities.
+    private Boolean queryCacheable = null;
+
+    private final RowCountCache rowCountCache = new RowCountCache();
+
     public GenericDao(Class<T> type) {
         this.type = type;
     }
@@ -52,25 +86,52 @@ public abstract class GenericDao<T extends StorableObject> extends StorableObjec
         return type;
     }
 
+    /**
+     * Whether getAll() and getRowCount() use the query cache. By default, only
+     * if the entity is cacheable, as the query cache stores only the ids.
+     *
+     * @return
+     */
+    public boolean isQueryCacheable() {
+        if (queryCacheable != null) {
+            return queryCacheable;
+        }
+        return CacheUtils.isCacheable(getType());
+    }
+
+    /**
+     * Forces the use of the query cache. Null restores the default behaviour.
+     *
+     * @param queryCacheable
+     */
+    public void setQueryCacheable(Boolean queryCacheable) {
+        this.queryCacheable = queryCacheable;
+    }
+
+    /**
+     * Cache used by getRowCount(). Its time to live can be changed.
+     *
+     * @return
+     */
+    public RowCountCache getRowCountCache() {
+        return rowCountCache;
+    }
+
     /**
      * Get all elements that has a null value in the ID parameter before
-     * persisting.
+     * persisting. Each instance is included, even if several ones are equals.
      *
      * @param entity
      * @return
      */
     public Set<StorableObject> getElementsWithNullIds(T entity) {
-        final Set<StorableObject> elementsWithNullIds = new HashSet<>();
-        if (entity.getId() == null) {
-            elementsWithNullIds.add(entity);
-        }
-        if (entity.getAllInnerStorableObjects() != null) {
-            for (StorableObject child : entity.getAllInnerStorableObjects()) {
-                if (child.getId() == null) {
-                    elementsWithNullIds.add(child);
-                }
+        final Set<StorableObject> elementsWithNullIds = Collections.newSetFromMap(new IdentityHashMap<>());
+        entity.visitStorableObjects(element -> {
+            if (element.getId() == null) {
+                elementsWithNullIds.add(element);
             }
-        }
+            return true;
+        });
         return elementsWithNullIds;
     }
 
@@ -102,103 +163,335 @@ public abstract class GenericDao<T extends StorableObject> extends StorableObjec
         }
     }
 
+    /**
+     * Saves or updates an element and all its inner elements. If the element
+     * has dirty tracking enabled (see {@link StorableObject#isDirtyTracked()})
+     * and the structure of the tree has not changed, only the modified
+     * elements are updated.
+     *
+     * @param entity
+     * @return
+     * @throws UnexpectedEntityDatabaseException
+     * @throws ElementCannotBePersistedException
+     */
     @Override
     public T makePersistent(T entity) throws UnexpectedEntityDatabaseException, ElementCannotBePersistedException {
-        setCreationInfo(entity);
-        setUpdateInfo(entity);
+        final Timestamp now = StorableObjectClock.now();
+        if (entity.isDirtyTracked() && entity.getId() != null) {
+            final List<StorableObject> modifiedElements = getModifiedElements(entity);
+            if (modifiedElements != null) {
+                updateModifiedElements(entity, modifiedElements, now);
+                return entity;
+            }
+        }
+        setCreationInfo(entity, now);
+        setUpdateInfo(entity, now);
         final Set<StorableObject> elementsWithNullIds = getElementsWithNullIds(entity);
-        final Session session = getSessionFactory().getCurrentSession();
-        session.beginTransaction();
         try {
-            session.saveOrUpdate(entity);
-            session.flush();
-            session.getTransaction().commit();
-            return entity;
-        } catch (RuntimeException e) {
-            session.getTransaction().rollback();
+            return inTransaction(session -> {
+                session.saveOrUpdate(entity);
+                session.flush();
+                afterCommit(session, () -> {
+                    rowCountCache.invalidate();
+                    if (entity.isDirtyTracked()) {
+                        entity.resetModified();
+                    }
+                });
+                return entity;
+            });
+        } catch (UnexpectedEntityDatabaseException e) {
             // Reset the IDs if hibernate has put a value before rollback.
             setNullIds(elementsWithNullIds);
-            throw new UnexpectedEntityDatabaseException(e.getMessage(), e);
+            throw e;
         }
     }
 
     @Override
     public List<T> makePersistent(List<T> entities) throws UnexpectedEntityDatabaseException {
-        final Session session = getSessionFactory().getCurrentSession();
-        session.beginTransaction();
-        int objectsToStore = 0;
-        try {
-            for (int i = 0; i < entities.size(); i++) {
-                setCreationInfo(entities.get(i));
-                setUpdateInfo(entities.get(i));
-                session.saveOrUpdate(entities.get(i));
-                objectsToStore++;
-
-                if (objectsToStore > MAX_OBJETS_PER_SESSION || i == entities.size() - 1) {
-                    session.flush();
-                    session.clear();
-                    objectsToStore = 0;
+        return makePersistent(entities, MAX_OBJETS_PER_SESSION);
+    }
+
+    /**
+     * Gets the modified elements of a dirty tracked tree. The inner elements
+     * of an element without modified or inner modified flags are not
+     * visited, as any change below it would have marked it. Therefore, the
+     * elements without dirty tracking are only detected inside modified
+     * branches.
+     *
+     * @param entity
+     * @return the modified elements, or null if the tree has new elements,
+     * added or removed children or elements without dirty tracking, and a
+     * complete save is needed.
+     */
+    protected List<StorableObject> getModifiedElements(T entity) {
+        final List<StorableObject> modifiedElements = new ArrayList<>();
+        final boolean[] completeSaveNeeded = {false};
+        entity.visitStorableObjects(element -> {
+            if (completeSaveNeeded[0]) {
+                return false;
+            }
+            if (element.getId() == null || element.isStructureModified() || !element.isDirtyTracked()) {
+                completeSaveNeeded[0] = true;
+                return false;
+            }
+            if (element.isModified()) {
+                modifiedElements.add(element);
+            }
+            return element.isModified() || element.isInnerModified();
+        });
+        if (completeSaveNeeded[0]) {
+            return null;
+        }
+        return modifiedElements;
+    }
+
+    /**
+     * Updates the given elements without cascading to their children. A
+     * stateless session is opened over the connection of the current
+     * session, so the updates are part of its transaction, and the elements
+     * are not attached to any session. As the stateless session does not use
+     * the second level cache, the updated elements are evicted after commit.
+     * <p>
+     * If a transaction is already active (see
+     * {@link #inTransaction(IUnitOfWork)}), the session can have a managed
+     * copy of the elements, that would be updated again on flush. Then, the
+     * elements are merged into the session instead.
+     *
+     * @param entity
+     * @param modifiedElements
+     * @param now
+     * @throws UnexpectedEntityDatabaseException
+     */
+    private void updateModifiedElements(T entity, List<StorableObject> modifiedElements, Timestamp now)
+            throws UnexpectedEntityDatabaseException {
+        if (modifiedElements.isEmpty()) {
+            return;
+        }
+        for (StorableObject element : modifiedElements) {
+            if (element == entity) {
+                setUpdateInfo(entity, now);
+            } else {
+                element.setUpdateTime(now);
+            }
+        }
+        if (isTransactionActive()) {
+            inTransaction(session -> {
+                for (StorableObject element : modifiedElements) {
+                    if (!session.contains(element)) {
+                        session.merge(element);
+                    }
+                }
+                session.flush();
+                afterCommit(session, entity::resetModified);
+                return null;
+            });
+            return;
+        }
+        inTransaction(session -> {
+            session.doWork(connection -> {
+                try (StatelessSession statelessSession = getSessionFactory().openStatelessSession(connection)) {
+                    for (StorableObject element : modifiedElements) {
+                        statelessSession.update(element);
+                    }
+                }
+            });
+            afterCommit(session, () -> {
+                entity.resetModified();
+                for (StorableObject element : modifiedElements) {
+                    getSessionFactory().getCache().evictEntityData(Hibernate.getClass(element), element.getId());
+                }
+            });
+            return null;
+        });
+    }
+
+    /**
+     * Persists a list of objects using JDBC batches. Elements are sent ordered
+     * by operation (inserts before updates) and grouped by entity type, so
+     * consecutive statements share the same SQL and Hibernate can group them
+     * in a single JDBC batch. The session is flushed and cleared each
+     * 'batchSize' elements, that is also used as the session JDBC batch size.
+     * All elements share the same creation and update time.
+     * For cascaded graphs, enable also 'hibernate.order_inserts' and
+     * 'hibernate.order_updates'.
+     *
+     * @param entities
+     * @param batchSize
+     * @return
+     * @throws UnexpectedEntityDatabaseException
+     */
+    @Override
+    public List<T> makePersistent(List<T> entities, int batchSize) throws UnexpectedEntityDatabaseException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be a positive number.");
+        }
+        final long startTime = System.nanoTime();
+        final Timestamp now = StorableObjectClock.now();
+        inTransaction(session -> {
+            final Integer previousJdbcBatchSize = session.getJdbcBatchSize();
+            session.setJdbcBatchSize(batchSize);
+            try {
+                int objectsToStore = 0;
+                for (T entity : sortByOperationAndType(entities)) {
+                    setCreationInfo(entity, now);
+                    setUpdateInfo(entity, now);
+                    session.saveOrUpdate(entity);
+                    objectsToStore++;
+
+                    if (objectsToStore >= batchSize) {
+                        session.flush();
+                        session.clear();
+                        objectsToStore = 0;
+                    }
                 }
+                session.flush();
+                session.clear();
+            } finally {
+                session.setJdbcBatchSize(previousJdbcBatchSize);
             }
-            session.getTransaction().commit();
-            return entities;
-        } catch (RuntimeException e) {
-            session.getTransaction().rollback();
-            throw new UnexpectedEntityDatabaseException(e.getMessage(), e);
+            afterCommit(session, rowCountCache::invalidate);
+            return null;
+        });
+        logThroughput(entities.size(), batchSize, System.nanoTime() - startTime);
+        return entities;
+    }
+
+    /**
+     * Orders the elements to persist: first the new ones, then the already
+     * persisted ones. Each group is sorted by entity type, keeping the original
+     * order between elements of the same type.
+     *
+     * @param entities
+     * @return
+     */
+    private List<T> sortByOperationAndType(List<T> entities) {
+        final Map<Class<?>, List<T>> inserts = new LinkedHashMap<>();
+        final Map<Class<?>, List<T>> updates = new LinkedHashMap<>();
+        for (T entity : entities) {
+            (entity.getId() == null ? inserts : updates).computeIfAbsent(entity.getClass(), k -> new ArrayList<>()).add(entity);
         }
+        final List<T> sortedEntities = new ArrayList<>(entities.size());
+        inserts.values().forEach(sortedEntities::addAll);
+        updates.values().forEach(sortedEntities::addAll);
+        return sortedEntities;
+    }
+
+    private void logThroughput(int rows, int batchSize, long elapsedNanos) {
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        final long rowsPerSecond = elapsedNanos > 0 ? (rows * TimeUnit.SECONDS.toNanos(1)) / elapsedNanos : rows;
+        StorableObjectLogger.info(this.getClass().getName(), "Persisted " + rows + " elements of '" + getType().getSimpleName()
+                + "' in " + elapsedMillis + " ms with batch size " + batchSize + " (" + rowsPerSecond + " rows/s).");
     }
 
     public void removeStorableObject(StorableObject entity) throws UnexpectedEntityDatabaseException {
-        final Session session = getSessionFactory().getCurrentSession();
-        session.beginTransaction();
-        try {
+        inTransaction(session -> {
             session.delete(entity);
             session.flush();
-            session.getTransaction().commit();
-        } catch (RuntimeException e) {
-            session.getTransaction().rollback();
-            throw new UnexpectedEntityDatabaseException(e.getMessage(), e);
-        }
+            afterCommit(session, rowCountCache::invalidate);
+            return null;
+        });
     }
 
     @Override
     public T read(Long id) throws UnexpectedEntityDatabaseException {
-        final Session session = getSessionFactory().getCurrentSession();
-        session.beginTransaction();
-        try {
-            @SuppressWarnings("unchecked") final T object = (T) session.get(getType(), id);
+        return inTransaction(session -> {
+            final T object = session.get(getType(), id);
             initializeSet(object);
-            session.getTransaction().commit();
             return object;
-        } catch (RuntimeException e) {
-            session.getTransaction().rollback();
-            throw new UnexpectedEntityDatabaseException(e.getMessage(), e);
+        });
+    }
+
+    /**
+     * Gets the elements with the given ids in a single transaction. Ids are
+     * sent in IN clauses sized for the database dialect, and elements already
+     * in the session are not retrieved again. Elements are returned in the
+     * same order as the ids; ids not found are skipped.
+     *
+     * @param ids
+     * @return
+     * @throws UnexpectedEntityDatabaseException
+     */
+    @Override
+    public List<T> readAll(Collection<Long> ids) throws UnexpectedEntityDatabaseException {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
         }
+        return inTransaction(session -> {
+            final List<T> elements = session.byMultipleIds(getType()).withBatchSize(DialectUtils.getInClauseSize(getSessionFactory()))
+                    .enableOrderedReturn(true).enableSessionCheck(true).multiLoad(new ArrayList<>(ids));
+            elements.removeIf(Objects::isNull);
+            initializeSets(elements);
+            return elements;
+        });
     }
 
+    /**
+     * Gets the total number of elements. The value is cached during
+     * {@link RowCountCache#getTimeToLive()} milliseconds or until an element
+     * is stored or removed using this DAO. The cache is not used inside an
+     * active transaction.
+     *
+     * @return
+     * @throws UnexpectedEntityDatabaseException
+     */
     @Override
     public int getRowCount() throws UnexpectedEntityDatabaseException {
-        final Session session = getSessionFactory().getCurrentSession();
-        session.beginTransaction();
-        try {
+        // Inside a transaction, the count can include not committed changes.
+        final boolean useCache = !isTransactionActive();
+        final Integer cachedRowCount = useCache ? rowCountCache.get() : null;
+        if (cachedRowCount != null) {
+            return cachedRowCount;
+        }
+        final long rowCountGeneration = rowCountCache.getGeneration();
+        final int rows = inTransaction(session -> {
             // Create CriteriaBuilder
             final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
             final CriteriaQuery<Long> criteriaQuery = criteriaBuilder.createQuery(Long.class);
             final Root<T> root = criteriaQuery.from(getType());
 
             criteriaQuery.select(criteriaBuilder.count(root));
-            return session.createQuery(criteriaQuery).getSingleResult().intValue();
-        } catch (RuntimeException e) {
-            session.getTransaction().rollback();
-            throw new UnexpectedEntityDatabaseException(e.getMessage(), e);
+            return session.createQuery(criteriaQuery).setCacheable(isQueryCacheable())
+                    .setCacheRegion(CacheUtils.getQueryCacheRegion(getType())).getSingleResult().intValue();
+        });
+        if (useCache) {
+            rowCountCache.put(rows, rowCountGeneration);
+        }
+        return rows;
+    }
+
+    /**
+     * Gets the number of elements estimated by the database statistics,
+     * without counting them. Faster than {@link #getRowCount()} on big tables
+     * but can be inaccurate. If the database does not support it, the exact
+     * number is returned.
+     *
+     * @return
+     * @throws UnexpectedEntityDatabaseException
+     */
+    @Override
+    public int getApproximateRowCount() throws UnexpectedEntityDatabaseException {
+        final Long approximateRowCount = inTransaction(session ->
+                DialectUtils.getApproximateRowCount(session, getType(), getApproximateRowCountQuery()));
+        if (approximateRowCount == null) {
+            return getRowCount();
         }
+        return approximateRowCount.intValue();
+    }
+
+    /**
+     * Query used by {@link #getApproximateRowCount()}. Can be overridden for
+     * databases not supported by
+     * {@link DialectUtils#getApproximateRowCountQuery(org.hibernate.dialect.Dialect)}.
+     *
+     * @return the query with the table name as parameter, or null.
+     */
+    protected String getApproximateRowCountQuery() {
+        return DialectUtils.getApproximateRowCountQuery(DialectUtils.getDialect(getSessionFactory()));
     }
 
     @Override
     public List<T> getAll() throws UnexpectedEntityDatabaseException {
-        final Session session = getSessionFactory().getCurrentSession();
-        session.beginTransaction();
-        try {
+        return inTransaction(session -> {
             // session.createCriteria(getType()).list() is not working returns
             // repeated elements due to
             // http://stackoverflow.com/questions/8758363/why-session-createcriteriaclasstype-list-return-more-object-than-in-list
@@ -206,16 +499,65 @@ public abstract class GenericDao<T extends StorableObject> extends StorableObjec
             final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
             final CriteriaQuery<T> criteriaQuery = criteriaBuilder.createQuery(getType());
             final Root<T> root = criteriaQuery.from(getType());
-            criteriaQuery.select(criteriaQuery.from(getType()));
+            criteriaQuery.select(root);
+            List<T> elements;
             try {
-                return session.createQuery(criteriaQuery).getResultList();
+                elements = session.createQuery(criteriaQuery).setCacheable(isQueryCacheable())
+                        .setCacheRegion(CacheUtils.getQueryCacheRegion(getType())).getResultList();
             } catch (NoResultException var3) {
-                return new ArrayList<>();
+                elements = new ArrayList<>();
+            }
+            initializeSets(elements);
+            return elements;
+        });
+    }
+
+    /**
+     * Iterates over all elements stored into the database using a forward only
+     * cursor. Elements are read in blocks of 'fetchSize' rows; each block has
+     * its sets initialized and the session is cleared before passing the
+     * elements to the action. Therefore, the elements received are detached
+     * and the memory used does not depend on the size of the table.
+     *
+     * @param fetchSize
+     * @param action
+     * @throws UnexpectedEntityDatabaseException
+     */
+    @Override
+    public void forEach(int fetchSize, Consumer<? super T> action) throws UnexpectedEntityDatabaseException {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Fetch size must be a positive number.");
+        }
+        inTransaction(session -> {
+            // The session is cleared on each block. Pending changes of a joined
+            // transaction must be stored before.
+            session.flush();
+            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            final CriteriaQuery<T> criteriaQuery = criteriaBuilder.createQuery(getType());
+            criteriaQuery.select(criteriaQuery.from(getType()));
+            try (ScrollableResults<T> results = session.createQuery(criteriaQuery).setFetchSize(fetchSize).setReadOnly(true)
+                    .setCacheMode(CacheMode.IGNORE).scroll(ScrollMode.FORWARD_ONLY)) {
+                final List<T> block = new ArrayList<>(fetchSize);
+                while (results.next()) {
+                    block.add(results.get());
+                    if (block.size() >= fetchSize) {
+                        consumeBlock(session, block, action);
+                    }
+                }
+                consumeBlock(session, block, action);
             }
-        } catch (RuntimeException e) {
-            session.getTransaction().rollback();
-            throw new UnexpectedEntityDatabaseException(e.getMessage(), e);
+            return null;
+        });
+    }
+
+    private void consumeBlock(Session session, List<T> block, Consumer<? super T> action) {
+        if (block.isEmpty()) {
+            return;
         }
+        initializeSets(block);
+        session.clear();
+        block.forEach(action);
+        block.clear();
     }
 
     /**
@@ -225,9 +567,145 @@ public abstract class GenericDao<T extends StorableObject> extends StorableObjec
      */
     @Override
     public void removeAll() throws UnexpectedEntityDatabaseException {
-        final List<T> elements = getAll();
-        for (T element : elements) {
-            deleteStorableObject(element);
+        bulkRemoveAll();
+    }
+
+    /**
+     * Truncates the table in a single transaction. If
+     * {@link #isBulkRemovalSupported()}, a set based delete is executed after
+     * {@link #removeInnerStorableObjects(Session)}. If not, elements are
+     * removed one by one to let Hibernate cascade the removal to the inner
+     * elements. Cached data of the removed elements is evicted. If an outer
+     * transaction is joined, its session is not cleared: only the elements
+     * loaded or removed here are detached.
+     *
+     * @return the number of rows deleted.
+     * @throws UnexpectedEntityDatabaseException
+     */
+    @Override
+    public int bulkRemoveAll() throws UnexpectedEntityDatabaseException {
+        final boolean joined = isTransactionActive();
+        return inTransaction(session -> {
+            final int removedRows;
+            if (isBulkRemovalSupported()) {
+                // Pending changes of a joined transaction must be stored before the set based delete.
+                session.flush();
+                final CriteriaDelete<T> criteriaDelete = session.getCriteriaBuilder().createCriteriaDelete(getType());
+                criteriaDelete.from(getType());
+                removedRows = removeInnerStorableObjects(session) + session.createMutationQuery(criteriaDelete).executeUpdate();
+                if (joined) {
+                    // The set based delete does not change the state of the managed instances.
+                    detachManagedEntities(session, entity -> getType().isInstance(entity));
+                }
+            } else {
+                removedRows = removeOneByOne(session, joined);
+            }
+            afterCommit(session, () -> {
+                rowCountCache.invalidate();
+                evictRemovedElementsCache();
+            });
+            return removedRows;
+        });
+    }
+
+    /**
+     * Removes the elements in blocks. If an outer transaction is joined, the
+     * entities of the caller stay managed and only the ones loaded here are
+     * detached after each block.
+     */
+    private int removeOneByOne(Session session, boolean joined) {
+        final Set<Object> callerEntities = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (joined) {
+            for (Map.Entry<Object, EntityEntry> entry : getPersistenceContext(session).reentrantSafeEntityEntries()) {
+                callerEntities.add(entry.getKey());
+            }
+        }
+        final CriteriaQuery<T> criteriaQuery = session.getCriteriaBuilder().createQuery(getType());
+        criteriaQuery.select(criteriaQuery.from(getType()));
+        int removedRows = 0;
+        try (ScrollableResults<T> results = session.createQuery(criteriaQuery).setFetchSize(MAX_OBJETS_PER_SESSION)
+                .setCacheMode(CacheMode.IGNORE).scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                session.remove(results.get());
+                removedRows++;
+                if (removedRows % MAX_OBJETS_PER_SESSION == 0) {
+                    releaseRemovedBlock(session, joined, callerEntities);
+                }
+            }
+        }
+        releaseRemovedBlock(session, joined, callerEntities);
+        return removedRows;
+    }
+
+    private void releaseRemovedBlock(Session session, boolean joined, Set<Object> callerEntities) {
+        session.flush();
+        if (joined) {
+            detachManagedEntities(session, entity -> !callerEntities.contains(entity));
+        } else {
+            session.clear();
+        }
+    }
+
+    private void detachManagedEntities(Session session, Predicate<Object> filter) {
+        for (Map.Entry<Object, EntityEntry> entry : getPersistenceContext(session).reentrantSafeEntityEntries()) {
+            if (filter.test(entry.getKey()) && session.contains(entry.getKey())) {
+                session.detach(entry.getKey());
+            }
+        }
+    }
+
+    private PersistenceContext getPersistenceContext(Session session) {
+        return session.unwrap(SessionImplementor.class).getPersistenceContextInternal();
+    }
+
+    /**
+     * A set based delete does not cascade to inner elements. By default, it is
+     * only used if the entity has no collections and no relation that cascades
+     * the removal (i.e. a OneToOne with cascade REMOVE or orphan removal).
+     * Subclasses that remove their inner elements in
+     * {@link #removeInnerStorableObjects(Session)} can override this method to
+     * enable it.
+     *
+     * @return
+     */
+    protected boolean isBulkRemovalSupported() {
+        if (!getSessionFactory().getMetamodel().entity(getType()).getPluralAttributes().isEmpty()) {
+            return false;
+        }
+        final EntityPersister persister = getSessionFactory().unwrap(SessionFactoryImplementor.class).getMappingMetamodel()
+                .getEntityDescriptor(getType());
+        for (CascadeStyle cascadeStyle : persister.getPropertyCascadeStyles()) {
+            if (cascadeStyle.doCascade(CascadingActions.DELETE) || cascadeStyle.hasOrphanDelete()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Executed before the set based delete of the table, in the same
+     * transaction. Subclasses must remove here the inner elements and join
+     * tables that reference the table (i.e. using set based deletes).
+     *
+     * @param session
+     * @return the number of rows deleted.
+     */
+    protected int removeInnerStorableObjects(Session session) {
+        return 0;
+    }
+
+    /**
+     * Evicts the second level cache regions that can contain removed elements:
+     * the entity, its collections and the query cache. Subclasses that remove
+     * inner elements can extend it.
+     */
+    protected void evictRemovedElementsCache() {
+        if (getSessionFactory().getCache() != null) {
+            getSessionFactory().getCache().evictEntityData(getType());
+            for (String role : CacheUtils.getCollectionRoles(getSessionFactory(), getType())) {
+                getSessionFactory().getCache().evictCollectionData(role);
+            }
+            getSessionFactory().getCache().evictQueryRegions();
         }
     }
 
@@ -262,10 +740,38 @@ public abstract class GenericDao<T extends StorableObject> extends StorableObjec
         }
     }
 
+    @Override
+    public void evictCache(Long id) {
+        CacheUtils.evict(getSessionFactory(), getType(), id);
+    }
+
+    @Override
+    public void evictCacheByComparationId(String comparationId) throws UnexpectedEntityDatabaseException {
+        final List<Long> ids = inTransaction(session -> {
+            final CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            final CriteriaQuery<Long> criteriaQuery = criteriaBuilder.createQuery(Long.class);
+            final Root<T> root = criteriaQuery.from(getType());
+            criteriaQuery.select(root.get("id")).where(criteriaBuilder.equal(root.get("comparationId"), comparationId));
+            return session.createQuery(criteriaQuery).getResultList();
+        });
+        for (Long id : ids) {
+            evictCache(id);
+        }
+    }
+
+    @Override
+    public List<CacheStatistics> getCacheStatistics() {
+        return CacheUtils.getCacheStatistics(getSessionFactory(), getType());
+    }
+
     @Override
     public void makeTransient(T entity) throws UnexpectedEntityDatabaseException, ElementCannotBeRemovedException {
         if (entity != null) {
-            super.deleteStorableObject(entity);
+            inTransaction(session -> {
+                super.deleteStorableObject(entity);
+                afterCommit(session, rowCountCache::invalidate);
+                return null;
+            });
         }
     }
 }
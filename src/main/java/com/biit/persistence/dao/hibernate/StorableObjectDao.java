@@ -22,13 +22,17 @@ package com.biit.persistence.dao.hibernate;
  */
 
 import com.biit.persistence.dao.IStorableObjectDao;
+import com.biit.persistence.dao.IUnitOfWork;
 import com.biit.persistence.dao.exceptions.UnexpectedEntityDatabaseException;
 import com.biit.persistence.entity.BaseStorableObject;
+import com.biit.persistence.utils.StorableObjectClock;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
 
 import java.sql.Timestamp;
-import java.util.Date;
 
 public class StorableObjectDao<T extends BaseStorableObject> implements IStorableObjectDao {
 
@@ -45,31 +49,114 @@ public class StorableObjectDao<T extends BaseStorableObject> implements IStorabl
     }
 
     protected void setCreationInfo(T entity) {
+        setCreationInfo(entity, StorableObjectClock.now());
+    }
+
+    /**
+     * Sets the creation time if not set.
+     *
+     * @param entity
+     * @param time   rounded to seconds. Each element stores its own copy.
+     */
+    protected void setCreationInfo(T entity, Timestamp time) {
         final BaseStorableObject storableObject = (BaseStorableObject) entity;
-        if (storableObject.getCreationTime() == null) {
-            storableObject.setCreationTime(new Timestamp(new Date().getTime()));
-        }
+        storableObject.initializeCreationTime(time);
     }
 
     protected void setUpdateInfo(T entity) {
+        setUpdateInfo(entity, StorableObjectClock.now());
+    }
+
+    /**
+     * Sets the update time.
+     *
+     * @param entity
+     * @param time   rounded to seconds. Each element stores its own copy.
+     */
+    protected void setUpdateInfo(T entity, Timestamp time) {
         final BaseStorableObject treeObject = entity;
-        treeObject.setUpdateTime(new Timestamp(new Date().getTime()));
+        treeObject.setUpdateTime(time);
     }
 
     @Override
     public void deleteStorableObject(BaseStorableObject entity) throws UnexpectedEntityDatabaseException {
         if (entity.getId() != null) {
-            final Session session = getSessionFactory().getCurrentSession();
-            session.beginTransaction();
-            try {
+            inTransaction(session -> {
                 session.delete(entity);
                 session.flush();
-                session.getTransaction().commit();
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public <R, E extends Exception> R inTransaction(IUnitOfWork<R, E> work) throws E, UnexpectedEntityDatabaseException {
+        final Session session = getSessionFactory().getCurrentSession();
+        final Transaction transaction = session.getTransaction();
+        if (transaction.isActive()) {
+            // Joined. The owner of the transaction commits or rolls it back.
+            try {
+                return work.execute(session);
             } catch (RuntimeException e) {
-                session.getTransaction().rollback();
+                transaction.markRollbackOnly();
                 throw new UnexpectedEntityDatabaseException(e.getMessage(), e);
+            } catch (Exception e) {
+                transaction.markRollbackOnly();
+                throw e;
             }
         }
+        session.beginTransaction();
+        try {
+            final R result = work.execute(session);
+            session.getTransaction().commit();
+            return result;
+        } catch (RuntimeException e) {
+            rollback(session);
+            throw new UnexpectedEntityDatabaseException(e.getMessage(), e);
+        } catch (Exception e) {
+            rollback(session);
+            throw e;
+        }
+    }
+
+    /**
+     * Checks if there is a transaction active in the current session, that DAO
+     * methods will join.
+     *
+     * @return
+     */
+    protected boolean isTransactionActive() {
+        return getSessionFactory().getCurrentSession().getTransaction().isActive();
+    }
+
+    private void rollback(Session session) {
+        if (session.getTransaction().isActive()) {
+            session.getTransaction().rollback();
+        }
+    }
+
+    /**
+     * Executes an action once the current transaction has been committed. Used
+     * for changes that must not be visible before the commit (i.e. cache
+     * invalidation), also when the DAO method joins an outer transaction.
+     *
+     * @param session
+     * @param action
+     */
+    protected void afterCommit(Session session, Runnable action) {
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+                // Nothing to do.
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
     }
 
 }
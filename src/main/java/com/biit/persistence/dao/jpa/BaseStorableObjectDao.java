@@ -23,6 +23,10 @@ package com.biit.persistence.dao.jpa;
 
 import com.biit.persistence.dao.IJpaBaseStorableObjectDao;
 import com.biit.persistence.entity.BaseStorableObject;
+import com.biit.persistence.entity.exceptions.ElementCannotBeRemovedException;
+import com.biit.persistence.utils.CacheUtils;
+import com.biit.persistence.utils.LruCache;
+import com.biit.persistence.utils.StorableObjectClock;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
@@ -30,24 +34,80 @@ import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 
 import java.io.Serializable;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 public abstract class BaseStorableObjectDao<EntityClass extends BaseStorableObject, PrimaryKeyClass extends Serializable> extends
         GenericDao<EntityClass, PrimaryKeyClass> implements IJpaBaseStorableObjectDao<EntityClass, PrimaryKeyClass> {
+    public static final int DEFAULT_COMPARATION_ID_CACHE_SIZE = 10000;
+
+    // Relation comparationId -> id. The comparationId of a persisted element
+    // never changes, but cached ids are always checked against the database
+    // element as it can be removed from other node.
+    private final LruCache<String, Long> comparationIdCache;
 
     public BaseStorableObjectDao(Class<EntityClass> type) {
+        this(type, DEFAULT_COMPARATION_ID_CACHE_SIZE);
+    }
+
+    public BaseStorableObjectDao(Class<EntityClass> type, int comparationIdCacheSize) {
         super(type);
+        comparationIdCache = new LruCache<>(comparationIdCacheSize);
     }
 
     @Override
     public EntityClass merge(EntityClass entity) {
         entity.setUpdateTime();
+        comparationIdCache.remove(entity.getComparationId());
         return super.merge(entity);
     }
 
+    @Override
+    public List<EntityClass> mergeAll(Collection<EntityClass> entities) {
+        final Timestamp now = StorableObjectClock.now();
+        for (EntityClass entity : entities) {
+            entity.setUpdateTime(now);
+            comparationIdCache.remove(entity.getComparationId());
+        }
+        return super.mergeAll(entities);
+    }
+
+    @Override
+    public void makeTransientAll(Collection<EntityClass> entities) throws ElementCannotBeRemovedException {
+        for (EntityClass entity : entities) {
+            if (entity != null) {
+                comparationIdCache.remove(entity.getComparationId());
+            }
+        }
+        super.makeTransientAll(entities);
+    }
+
+    @Override
+    public void makeTransient(EntityClass entity) throws ElementCannotBeRemovedException {
+        if (entity != null) {
+            comparationIdCache.remove(entity.getComparationId());
+        }
+        super.makeTransient(entity);
+    }
+
     @Override
     public EntityClass getByComparatorId(String comparationId) throws NoResultException {
+        final Long id = comparationIdCache.get(comparationId);
+        if (id != null) {
+            final EntityClass entity = getEntityManager().find(getEntityClass(), id);
+            if (entity != null && Objects.equals(entity.getComparationId(), comparationId)) {
+                return entity;
+            }
+            comparationIdCache.remove(comparationId);
+        }
+
         // Get the criteria builder instance from entity manager
         final CriteriaBuilder criteriaBuilder = getEntityManager().getCriteriaBuilder();
         final CriteriaQuery<EntityClass> criteriaQuery = criteriaBuilder.createQuery(getEntityClass());
@@ -58,6 +118,86 @@ public abstract class BaseStorableObjectDao<EntityClass extends BaseStorableObje
         predicates.add(criteriaBuilder.equal(typesRoot.get("comparationId"), comparationId));
         criteriaQuery.where(criteriaBuilder.and(predicates.toArray(new Predicate[]{})));
 
-        return getEntityManager().createQuery(criteriaQuery).getSingleResult();
+        final EntityClass entity = getEntityManager().createQuery(criteriaQuery).getSingleResult();
+        comparationIdCache.put(comparationId, entity.getId());
+        return entity;
+    }
+
+    @Override
+    public List<EntityClass> getByComparatorIds(Collection<String> comparationIds) {
+        final Map<String, EntityClass> entities = new HashMap<>();
+        final Set<String> notCached = new LinkedHashSet<>();
+        final List<Long> cachedIds = new ArrayList<>();
+        for (String comparationId : comparationIds) {
+            final Long id = comparationIdCache.get(comparationId);
+            if (id == null) {
+                notCached.add(comparationId);
+            } else {
+                cachedIds.add(id);
+            }
+        }
+
+        // Cached elements are read by id, ignoring the ones that are not valid anymore.
+        if (!cachedIds.isEmpty()) {
+            for (EntityClass entity : multiLoad(cachedIds)) {
+                entities.put(entity.getComparationId(), entity);
+            }
+        }
+        for (String comparationId : comparationIds) {
+            if (!notCached.contains(comparationId) && !entities.containsKey(comparationId)) {
+                comparationIdCache.remove(comparationId);
+                notCached.add(comparationId);
+            }
+        }
+
+        // Not cached elements are retrieved using the comparationId index.
+        final List<String> pendingComparationIds = new ArrayList<>(notCached);
+        final int inClauseSize = getInClauseSize();
+        for (int i = 0; i < pendingComparationIds.size(); i += inClauseSize) {
+            final CriteriaQuery<EntityClass> criteriaQuery = getEntityManager().getCriteriaBuilder().createQuery(getEntityClass());
+            final Root<EntityClass> typesRoot = criteriaQuery.from(getEntityClass());
+            criteriaQuery.where(typesRoot.get("comparationId").in(
+                    pendingComparationIds.subList(i, Math.min(i + inClauseSize, pendingComparationIds.size()))));
+            for (EntityClass entity : getEntityManager().createQuery(criteriaQuery).getResultList()) {
+                entities.put(entity.getComparationId(), entity);
+                comparationIdCache.put(entity.getComparationId(), entity.getId());
+            }
+        }
+
+        final List<EntityClass> result = new ArrayList<>();
+        for (String comparationId : comparationIds) {
+            final EntityClass entity = entities.get(comparationId);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void evictCacheByComparationId(String comparationId) {
+        Long id = comparationIdCache.peek(comparationId);
+        if (id == null) {
+            final CriteriaBuilder criteriaBuilder = getEntityManager().getCriteriaBuilder();
+            final CriteriaQuery<Long> criteriaQuery = criteriaBuilder.createQuery(Long.class);
+            final Root<EntityClass> root = criteriaQuery.from(getEntityClass());
+            criteriaQuery.select(root.get("id")).where(criteriaBuilder.equal(root.get("comparationId"), comparationId));
+            final List<Long> ids = getEntityManager().createQuery(criteriaQuery).getResultList();
+            if (ids.isEmpty()) {
+                return;
+            }
+            id = ids.get(0);
+        }
+        CacheUtils.evict(getSessionFactory(), getEntityClass(), id);
+    }
+
+    /**
+     * Cache used to resolve the comparationIds. Can be used to get the hit
+     * rate.
+     *
+     * @return
+     */
+    public LruCache<String, Long> getComparationIdCache() {
+        return comparationIdCache;
     }
 }
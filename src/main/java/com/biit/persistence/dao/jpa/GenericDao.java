@@ -23,22 +23,46 @@ package com.biit.persistence.dao.jpa;
 
 import com.biit.persistence.dao.IJpaGenericDao;
 import com.biit.persistence.entity.exceptions.ElementCannotBeRemovedException;
+import com.biit.persistence.utils.CacheStatistics;
+import com.biit.persistence.utils.CacheUtils;
+import com.biit.persistence.utils.DialectUtils;
+import com.biit.persistence.utils.RowCountCache;
 import jakarta.persistence.Cache;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
 import jakarta.persistence.NoResultException;
+import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Root;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.jpa.HibernateHints;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public abstract class GenericDao<EntityClass, PrimaryKeyClass extends Serializable> implements IJpaGenericDao<EntityClass, PrimaryKeyClass> {
+    public static final int DEFAULT_JDBC_BATCH_SIZE = 50;
 
     private Class<EntityClass> entityClass;
 
+    // If null, queries are cached only for cacheable entities.
+    private Boolean queryCacheable = null;
+
+    private final RowCountCache rowCountCache = new RowCountCache();
+
     @Override
     public abstract EntityManager getEntityManager();
 
@@ -46,6 +70,37 @@ public abstract class GenericDao<EntityClass, PrimaryKeyClass extends Serializab
         this.entityClass = entityClass;
     }
 
+    /**
+     * Whether getAll() and getRowCount() use the query cache. By default, only
+     * if the entity is cacheable, as the query cache stores only the ids.
+     *
+     * @return
+     */
+    public boolean isQueryCacheable() {
+        if (queryCacheable != null) {
+            return queryCacheable;
+        }
+        return CacheUtils.isCacheable(getEntityClass());
+    }
+
+    /**
+     * Forces the use of the query cache. Null restores the default behaviour.
+     *
+     * @param queryCacheable
+     */
+    public void setQueryCacheable(Boolean queryCacheable) {
+        this.queryCacheable = queryCacheable;
+    }
+
+    /**
+     * Cache used by getRowCount(). Its time to live can be changed.
+     *
+     * @return
+     */
+    public RowCountCache getRowCountCache() {
+        return rowCountCache;
+    }
+
     @Override
     public EntityClass makePersistent(EntityClass entity) {
         if (entity == null) {
@@ -60,6 +115,7 @@ public abstract class GenericDao<EntityClass, PrimaryKeyClass extends Serializab
         // to null.
         // http://stackoverflow.com/questions/3068817/hibernate-triggering-constraint-violations-using-orphanremoval
         getEntityManager().flush();
+        invalidateRowCountAfterCommit();
 
         return entity;
     }
@@ -71,13 +127,114 @@ public abstract class GenericDao<EntityClass, PrimaryKeyClass extends Serializab
         }
         final EntityClass managedEntity = getEntityManager().merge(entity);
         getEntityManager().flush();
+        invalidateRowCountAfterCommit();
         return managedEntity;
     }
 
+    @Override
+    public List<EntityClass> makePersistentAll(Collection<EntityClass> entities) {
+        final List<EntityClass> persistedEntities = new ArrayList<>(entities.size());
+        inBatch(() -> {
+            for (EntityClass entity : entities) {
+                getEntityManager().persist(entity);
+                persistedEntities.add(entity);
+            }
+        });
+        return persistedEntities;
+    }
+
+    @Override
+    public List<EntityClass> mergeAll(Collection<EntityClass> entities) {
+        final List<EntityClass> managedEntities = new ArrayList<>(entities.size());
+        inBatch(() -> {
+            for (EntityClass entity : entities) {
+                managedEntities.add(getEntityManager().merge(entity));
+            }
+        });
+        return managedEntities;
+    }
+
+    @Override
+    public void makeTransientAll(Collection<EntityClass> entities) throws ElementCannotBeRemovedException {
+        // Not managed elements are loaded with a single query for each IN clause.
+        final List<Object> ids = new ArrayList<>();
+        for (EntityClass entity : entities) {
+            if (entity != null && !getEntityManager().contains(entity)) {
+                final Object id = getEntityManager().getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+                if (id != null) {
+                    ids.add(id);
+                }
+            }
+        }
+        final List<EntityClass> loadedEntities = ids.isEmpty() ? new ArrayList<>() : multiLoad(ids);
+        inBatch(() -> {
+            for (EntityClass entity : entities) {
+                if (entity != null && getEntityManager().contains(entity)) {
+                    getEntityManager().remove(entity);
+                }
+            }
+            loadedEntities.forEach(getEntityManager()::remove);
+        });
+    }
+
+    /**
+     * Executes the changes with the JDBC batch size of
+     * {@link #getJdbcBatchSize()} and flushes them once.
+     *
+     * @param changes
+     */
+    private void inBatch(Runnable changes) {
+        final Session session = getEntityManager().unwrap(Session.class);
+        final Integer previousJdbcBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(getJdbcBatchSize());
+        try {
+            changes.run();
+            getEntityManager().flush();
+        } finally {
+            session.setJdbcBatchSize(previousJdbcBatchSize);
+        }
+        invalidateRowCountAfterCommit();
+    }
+
+    /**
+     * JDBC batch size used by the bulk operations.
+     *
+     * @return
+     */
+    protected int getJdbcBatchSize() {
+        return DEFAULT_JDBC_BATCH_SIZE;
+    }
+
+    @Override
+    public <R> R inTransaction(Supplier<R> work) {
+        if (getEntityManager().isJoinedToTransaction()) {
+            return work.get();
+        }
+        final EntityTransaction transaction;
+        try {
+            transaction = getEntityManager().getTransaction();
+        } catch (IllegalStateException e) {
+            // Container managed entity manager without transaction.
+            return work.get();
+        }
+        transaction.begin();
+        try {
+            final R result = work.get();
+            transaction.commit();
+            return result;
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+
     @Override
     public void makeTransient(EntityClass entity) throws ElementCannotBeRemovedException {
         if (entity != null) {
             getEntityManager().remove(getEntityManager().contains(entity) ? entity : getEntityManager().merge(entity));
+            invalidateRowCountAfterCommit();
         }
     }
 
@@ -86,14 +243,124 @@ public abstract class GenericDao<EntityClass, PrimaryKeyClass extends Serializab
         return getEntityManager().find(getEntityClass(), id);
     }
 
+    @Override
+    public List<EntityClass> getAll(Collection<PrimaryKeyClass> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return multiLoad(new ArrayList<>(ids));
+    }
+
+    /**
+     * Loads the elements with the given ids, in the same order. Ids are
+     * chunked in IN clauses and elements already in the persistence context
+     * are not retrieved again. Ids not found are skipped.
+     *
+     * @param ids
+     * @return
+     */
+    protected List<EntityClass> multiLoad(List<?> ids) {
+        final List<EntityClass> elements = getEntityManager().unwrap(Session.class).byMultipleIds(getEntityClass())
+                .withBatchSize(getInClauseSize()).enableOrderedReturn(true).enableSessionCheck(true).multiLoad(ids);
+        elements.removeIf(Objects::isNull);
+        return elements;
+    }
+
+    /**
+     * Max number of parameters of an IN clause for the database used.
+     *
+     * @return
+     */
+    protected int getInClauseSize() {
+        return DialectUtils.getInClauseSize(getSessionFactory());
+    }
+
+    protected SessionFactory getSessionFactory() {
+        return getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Gets the total number of elements. The value is cached during
+     * {@link RowCountCache#getTimeToLive()} milliseconds or until an element
+     * stored or removed using this DAO is committed. Inside a transaction, the
+     * cache is not used.
+     *
+     * @return
+     */
     @Override
     public int getRowCount() {
+        // Inside a transaction, the count can include not committed changes.
+        final boolean useCache = !getEntityManager().isJoinedToTransaction();
+        final Integer cachedRowCount = useCache ? rowCountCache.get() : null;
+        if (cachedRowCount != null) {
+            return cachedRowCount;
+        }
+        final long rowCountGeneration = rowCountCache.getGeneration();
         final CriteriaBuilder cb = getEntityManager().getCriteriaBuilder();
         final CriteriaQuery<Long> query = cb.createQuery(Long.class);
         final Root<EntityClass> root = query.from(getEntityClass());
 
         query.select(cb.count(root));
-        return getEntityManager().createQuery(query).getSingleResult().intValue();
+        final int rows = setQueryCache(getEntityManager().createQuery(query)).getSingleResult().intValue();
+        if (useCache) {
+            rowCountCache.put(rows, rowCountGeneration);
+        }
+        return rows;
+    }
+
+    /**
+     * Invalidates the row count cache once the current transaction has been
+     * committed, as other transactions must not see a count with the not
+     * committed changes. Without a transaction, it is invalidated now.
+     */
+    private void invalidateRowCountAfterCommit() {
+        if (!getEntityManager().isJoinedToTransaction()) {
+            rowCountCache.invalidate();
+            return;
+        }
+        getEntityManager().unwrap(SharedSessionContractImplementor.class).getTransactionCoordinator().getLocalSynchronizations()
+                .registerSynchronization(new Synchronization() {
+                    @Override
+                    public void beforeCompletion() {
+                        // Nothing to do.
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status == Status.STATUS_COMMITTED) {
+                            rowCountCache.invalidate();
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Gets the number of elements estimated by the database statistics,
+     * without counting them. Faster than {@link #getRowCount()} on big tables
+     * but can be inaccurate. If the database does not support it, the exact
+     * number is returned.
+     *
+     * @return
+     */
+    @Override
+    public int getApproximateRowCount() {
+        final Long approximateRowCount = DialectUtils.getApproximateRowCount(getEntityManager().unwrap(Session.class),
+                getEntityClass(), getApproximateRowCountQuery());
+        if (approximateRowCount == null) {
+            return getRowCount();
+        }
+        return approximateRowCount.intValue();
+    }
+
+    /**
+     * Query used by {@link #getApproximateRowCount()}. Can be overridden for
+     * databases not supported by
+     * {@link DialectUtils#getApproximateRowCountQuery(org.hibernate.dialect.Dialect)}.
+     *
+     * @return the query with the table name as parameter, or null.
+     */
+    protected String getApproximateRowCountQuery() {
+        return DialectUtils.getApproximateRowCountQuery(DialectUtils.getDialect(getSessionFactory()));
     }
 
     @Override
@@ -101,12 +368,60 @@ public abstract class GenericDao<EntityClass, PrimaryKeyClass extends Serializab
         final CriteriaQuery<EntityClass> query = getEntityManager().getCriteriaBuilder().createQuery(getEntityClass());
         query.select(query.from(getEntityClass()));
         try {
-            return getEntityManager().createQuery(query).getResultList();
+            return setQueryCache(getEntityManager().createQuery(query)).getResultList();
         } catch (NoResultException nre) {
             return new ArrayList<EntityClass>();
         }
     }
 
+    private <T> TypedQuery<T> setQueryCache(TypedQuery<T> query) {
+        if (isQueryCacheable()) {
+            query.setHint(HibernateHints.HINT_CACHEABLE, true);
+            query.setHint(HibernateHints.HINT_CACHE_REGION, CacheUtils.getQueryCacheRegion(getEntityClass()));
+        }
+        return query;
+    }
+
+    @Override
+    public void forEach(int fetchSize, Consumer<? super EntityClass> action) {
+        // Without an outer transaction, no changes of the caller can be pending in the entity manager.
+        forEach(fetchSize, !getEntityManager().isJoinedToTransaction(), action);
+    }
+
+    @Override
+    public void forEach(int fetchSize, boolean clearOnBlock, Consumer<? super EntityClass> action) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Fetch size must be a positive number.");
+        }
+        if (clearOnBlock && getEntityManager().isJoinedToTransaction()) {
+            // Pending changes must be stored before clearing the entity manager.
+            getEntityManager().flush();
+        }
+        final CriteriaQuery<EntityClass> query = getEntityManager().getCriteriaBuilder().createQuery(getEntityClass());
+        query.select(query.from(getEntityClass()));
+        // Hibernate implements the result stream with a forward only scroll.
+        try (Stream<EntityClass> elements = getEntityManager().createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+                .getResultStream()) {
+            // Detach each element once used to keep the persistence context (and the heap) small, without removing
+            // other entities that the caller may have in it, unless the whole context must be cleared on each block.
+            final int[] rows = {0};
+            elements.forEach(element -> {
+                action.accept(element);
+                if (!clearOnBlock) {
+                    getEntityManager().detach(element);
+                } else if (++rows[0] % fetchSize == 0) {
+                    getEntityManager().clear();
+                }
+            });
+            if (clearOnBlock) {
+                getEntityManager().clear();
+            }
+        }
+    }
+
     @Override
     public void evictAllCache() {
         getEntityManager().getEntityManagerFactory().getCache().evictAll();
@@ -120,6 +435,16 @@ public abstract class GenericDao<EntityClass, PrimaryKeyClass extends Serializab
         getEntityManager().clear();
     }
 
+    @Override
+    public void evictCache(PrimaryKeyClass id) {
+        CacheUtils.evict(getSessionFactory(), getEntityClass(), id);
+    }
+
+    @Override
+    public List<CacheStatistics> getCacheStatistics() {
+        return CacheUtils.getCacheStatistics(getSessionFactory(), getEntityClass());
+    }
+
     public Class<EntityClass> getEntityClass() {
         return entityClass;
     }
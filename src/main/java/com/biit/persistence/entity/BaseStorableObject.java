@@ -22,9 +22,12 @@ package com.biit.persistence.entity;
  */
 
 import com.biit.persistence.utils.IdGenerator;
+import com.biit.persistence.utils.StorableObjectClock;
 import com.biit.usermanager.entity.IUser;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonSetter;
+import jakarta.persistence.Access;
+import jakarta.persistence.AccessType;
 import jakarta.persistence.Column;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -32,12 +35,12 @@ import jakarta.persistence.Id;
 import jakarta.persistence.Inheritance;
 import jakarta.persistence.InheritanceType;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Transient;
 
 import java.io.Serializable;
 import java.sql.Timestamp;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.GregorianCalendar;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * Base StorableObject class. This class holds all the basic storable object
@@ -58,6 +61,8 @@ public abstract class BaseStorableObject implements Serializable {
     private static final long serialVersionUID = 1861734314986978986L;
     public static final int MAX_UNIQUE_COLUMN_LENGTH = 190;
     public static final int HASH_CODE_SEED = 31;
+    private static final AtomicReferenceFieldUpdater<BaseStorableObject, String> COMPARATION_ID_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(BaseStorableObject.class, String.class, "comparationId");
 
     // GenerationType.Table stores into hibernate_sequence the name of the table
     // as a VARCHAR(255) when using
@@ -86,15 +91,32 @@ public abstract class BaseStorableObject implements Serializable {
     @Column(columnDefinition = "DOUBLE", name = "updated_by")
     private Long updatedBy = null;
 
-    // A unique Id created with the object used to compare persisted objects and
-    // in memory objects.
-    // MySQL unique keys are limited to 767 bytes that in utf8mb4 are ~190.
-    @Column(name = "comparation_id", unique = true, nullable = false, updatable = false, length = MAX_UNIQUE_COLUMN_LENGTH)
-    private String comparationId;
+    // A unique Id used to compare persisted objects and in memory objects.
+    // It is created on first access and not in the constructor, as elements
+    // loaded from database overwrite it. Mapped using the getter (see
+    // getComparationId()) so Hibernate never reads a not generated value.
+    // Volatile and lazily created with a CAS, as it is read on every
+    // equals() and hashCode() and must not need a lock.
+    @Transient
+    private volatile String comparationId;
+
+    // Distinguish an explicit null comparationId from a not generated one.
+    @Transient
+    private volatile boolean comparationIdAssigned = false;
 
     public BaseStorableObject() {
-        setCreationTime(new java.sql.Timestamp(new java.util.Date().getTime()));
-        comparationId = IdGenerator.createId();
+        // Creation time and comparationId are set on first access or before
+        // persisting the element. Elements read from database do not need them.
+    }
+
+    /**
+     * Sets the values that are lazily initialized before inserting the element
+     * into the database.
+     */
+    @PrePersist
+    protected void initializeBeforePersist() {
+        getComparationId();
+        getCreationTime();
     }
 
     public Long getId() {
@@ -110,39 +132,36 @@ public abstract class BaseStorableObject implements Serializable {
     }
 
     public void setCreationTime() {
-        setCreationTime(new java.sql.Timestamp(new Date().getTime()));
+        creationTime = StorableObjectClock.now();
     }
 
     public Timestamp getCreationTime() {
-        if (creationTime != null) {
-            return creationTime;
-        } else {
-            setCreationTime(new java.sql.Timestamp(getRoundedMilliseconds(new Date())));
-            return creationTime;
+        if (creationTime == null) {
+            creationTime = StorableObjectClock.now();
         }
+        return creationTime;
     }
 
-    public void setUpdateTime() {
-        setUpdateTime(new java.sql.Timestamp(new Date().getTime()));
+    /**
+     * Sets the creation time only if it has not been set or read before.
+     *
+     * @param dateCreated
+     */
+    public void initializeCreationTime(Timestamp dateCreated) {
+        if (creationTime == null) {
+            setCreationTime(dateCreated);
+        }
     }
 
-    private long getRoundedMilliseconds(Date date) {
-        if (date == null) {
-            return 0;
-        }
-        final Calendar calendar = new GregorianCalendar();
-        calendar.setTime(date);
-        calendar.set(Calendar.MILLISECOND, 0);
-        return calendar.getTimeInMillis();
+    public void setUpdateTime() {
+        updateTime = StorableObjectClock.now();
     }
 
     public Timestamp getUpdateTime() {
-        if (updateTime != null) {
-            return updateTime;
-        } else {
-            updateTime = new java.sql.Timestamp(getRoundedMilliseconds(new Date()));
-            return updateTime;
+        if (updateTime == null) {
+            updateTime = StorableObjectClock.now();
         }
+        return updateTime;
     }
 
     public Long getUpdatedBy() {
@@ -160,12 +179,24 @@ public abstract class BaseStorableObject implements Serializable {
         }
     }
 
+    /**
+     * Sets the creation time rounded to seconds. A copy is stored, so the
+     * given timestamp can be changed or shared between elements.
+     *
+     * @param dateCreated
+     */
     public void setCreationTime(Timestamp dateCreated) {
-        creationTime = new Timestamp(getRoundedMilliseconds(dateCreated));
+        creationTime = StorableObjectClock.roundToSeconds(dateCreated);
     }
 
+    /**
+     * Sets the update time rounded to seconds. A copy is stored, so the
+     * given timestamp can be changed or shared between elements.
+     *
+     * @param dateUpdated
+     */
     public void setUpdateTime(Timestamp dateUpdated) {
-        updateTime = new Timestamp(getRoundedMilliseconds(dateUpdated));
+        updateTime = StorableObjectClock.roundToSeconds(dateUpdated);
     }
 
     @JsonSetter
@@ -215,7 +246,8 @@ public abstract class BaseStorableObject implements Serializable {
      */
     public void resetIds() {
         setId(null);
-        comparationId = IdGenerator.createId();
+        comparationIdAssigned = false;
+        comparationId = null;
     }
 
     /**
@@ -223,11 +255,22 @@ public abstract class BaseStorableObject implements Serializable {
      *
      * @param comparationId
      */
-    public synchronized void setComparationId(String comparationId) {
+    public void setComparationId(String comparationId) {
+        comparationIdAssigned = true;
         this.comparationId = comparationId;
     }
 
-    public synchronized String getComparationId() {
+    // MySQL unique keys are limited to 767 bytes that in utf8mb4 are ~190.
+    @Access(AccessType.PROPERTY)
+    @Column(name = "comparation_id", unique = true, nullable = false, updatable = false, length = MAX_UNIQUE_COLUMN_LENGTH)
+    public String getComparationId() {
+        final String currentComparationId = comparationId;
+        if (currentComparationId != null || comparationIdAssigned) {
+            return currentComparationId;
+        }
+        // If other thread wins, its value is used.
+        COMPARATION_ID_UPDATER.compareAndSet(this, null, IdGenerator.createId());
+        comparationIdAssigned = true;
         return comparationId;
     }
 
@@ -22,7 +22,13 @@ package com.biit.persistence.entity;
  */
 
 import com.biit.persistence.entity.exceptions.NotValidStorableObjectException;
+import jakarta.persistence.Transient;
 
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.Set;
 
 /**
@@ -36,6 +42,14 @@ import java.util.Set;
 public abstract class StorableObject extends BaseStorableObject {
     private static final long serialVersionUID = 1254938842002423347L;
 
+    // Dirty tracking. Only used if isDirtyTracked() returns true.
+    @Transient
+    private boolean modified = false;
+    @Transient
+    private boolean innerModified = false;
+    @Transient
+    private boolean structureModified = false;
+
     protected StorableObject() {
         super();
     }
@@ -47,8 +61,8 @@ public abstract class StorableObject extends BaseStorableObject {
      *
      * @return
      */
-    public synchronized String getUniqueNameReadable() {
-        return getComparationId().replaceAll("-", "");
+    public String getUniqueNameReadable() {
+        return getComparationId().replace("-", "");
     }
 
     /**
@@ -58,6 +72,132 @@ public abstract class StorableObject extends BaseStorableObject {
      */
     public abstract Set<StorableObject> getAllInnerStorableObjects();
 
+    /**
+     * Return the direct children of this object. By default returns null, and
+     * the traversals use {@link #getAllInnerStorableObjects()}. Override it on
+     * tree structures to avoid building a set of elements on each level.
+     *
+     * @return the children or null if not implemented.
+     */
+    protected Collection<? extends StorableObject> getInnerStorableObjects() {
+        return null;
+    }
+
+    /**
+     * Visits this object and all its inner elements. The tree is traversed
+     * iteratively (depth first) and each instance is visited only once, even
+     * if it is shared by several parents. Elements without
+     * {@link #getInnerStorableObjects()} visit all the elements returned by
+     * {@link #getAllInnerStorableObjects()}, and cannot skip part of them.
+     *
+     * @param visitor
+     */
+    public void visitStorableObjects(IStorableObjectVisitor visitor) {
+        final Set<StorableObject> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<StorableObject> pending = new ArrayDeque<>();
+        pending.push(this);
+        while (!pending.isEmpty()) {
+            final StorableObject element = pending.pop();
+            if (!visited.add(element) || !visitor.visit(element)) {
+                continue;
+            }
+            final Collection<? extends StorableObject> children = element.getInnerStorableObjects();
+            if (children != null) {
+                for (StorableObject child : children) {
+                    if (child != null && !visited.contains(child)) {
+                        pending.push(child);
+                    }
+                }
+            } else {
+                final Set<StorableObject> innerElements = element.getAllInnerStorableObjects();
+                if (innerElements != null) {
+                    for (StorableObject innerElement : innerElements) {
+                        if (innerElement != null && visited.add(innerElement)) {
+                            visitor.visit(innerElement);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the element that contains this object. Used to notify the
+     * modifications to the ancestors when dirty tracking is enabled. By
+     * default returns null.
+     *
+     * @return the parent or null.
+     */
+    protected StorableObject getParentStorableObject() {
+        return null;
+    }
+
+    /**
+     * Enables the dirty tracking of this object. If enabled, the setters of
+     * the subclass must call {@link #setModified()} when a persisted field
+     * changes and {@link #setStructureModified()} when a child is added or
+     * removed, and {@link #getParentStorableObject()} must be implemented.
+     * Then the DAOs only update the modified elements of the tree.
+     *
+     * @return false by default.
+     */
+    public boolean isDirtyTracked() {
+        return false;
+    }
+
+    /**
+     * Marks this object as modified, and its ancestors as having modified
+     * inner elements.
+     */
+    public void setModified() {
+        modified = true;
+        setInnerModifiedOnAncestors();
+    }
+
+    /**
+     * Marks this object as having added or removed inner elements. Elements
+     * with this flag are stored using a complete save.
+     */
+    public void setStructureModified() {
+        structureModified = true;
+        setModified();
+    }
+
+    private void setInnerModifiedOnAncestors() {
+        StorableObject parent = getParentStorableObject();
+        // Stops on already marked ancestors and on cycles.
+        while (parent != null && parent != this && !parent.innerModified) {
+            parent.innerModified = true;
+            parent = parent.getParentStorableObject();
+        }
+    }
+
+    public boolean isModified() {
+        return modified;
+    }
+
+    public boolean isInnerModified() {
+        return innerModified;
+    }
+
+    public boolean isStructureModified() {
+        return structureModified;
+    }
+
+    /**
+     * Clears the modification flags of this object and its inner elements.
+     * Called when the object has been stored.
+     */
+    public void resetModified() {
+        visitStorableObjects(element -> {
+            final boolean visitChildren = element.innerModified || element.structureModified;
+            element.modified = false;
+            element.innerModified = false;
+            element.structureModified = false;
+            return visitChildren;
+        });
+    }
+
     /**
      * Function to copy internal data of each different class that inherits
      * treeObject.
@@ -0,0 +1,84 @@
+package com.biit.persistence.utils;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.io.Serializable;
+
+/**
+ * Second level cache usage of an entity, a collection or a query region.
+ * Values are only collected if 'hibernate.generate_statistics' is enabled.
+ */
+public class CacheStatistics implements Serializable {
+    private static final long serialVersionUID = -4715303395381524364L;
+
+    private final String name;
+    private final String regionName;
+    private final long hitCount;
+    private final long missCount;
+    private final long putCount;
+
+    public CacheStatistics(String name, String regionName, long hitCount, long missCount, long putCount) {
+        this.name = name;
+        this.regionName = regionName;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+    }
+
+    /**
+     * Entity name, collection role or query region.
+     *
+     * @return
+     */
+    public String getName() {
+        return name;
+    }
+
+    public String getRegionName() {
+        return regionName;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    public double getHitRate() {
+        final long requests = hitCount + missCount;
+        if (requests == 0) {
+            return 0;
+        }
+        return (double) hitCount / requests;
+    }
+
+    @Override
+    public String toString() {
+        return name + " [region=" + regionName + ", hits=" + hitCount + ", misses=" + missCount + ", puts=" + putCount + "]";
+    }
+}
@@ -0,0 +1,146 @@
+package com.biit.persistence.utils;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import jakarta.persistence.Cacheable;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.CacheableDataStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Second level cache helpers shared by the DAOs. To cache an entity, enable
+ * 'hibernate.cache.use_second_level_cache' and annotate the entity with
+ * {@link Cacheable} and {@link org.hibernate.annotations.Cache}. Each entity
+ * has its own region.
+ */
+public final class CacheUtils {
+    private static final String QUERY_REGION_SUFFIX = ".query";
+
+    private CacheUtils() {
+        // Private constructor to hide the implicit public one.
+    }
+
+    /**
+     * Checks if the entity or any of its superclasses is marked as cacheable.
+     *
+     * @param type
+     * @return
+     */
+    public static boolean isCacheable(Class<?> type) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            final Cacheable cacheable = current.getAnnotation(Cacheable.class);
+            if (cacheable != null) {
+                return cacheable.value();
+            }
+            if (current.isAnnotationPresent(org.hibernate.annotations.Cache.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Query cache region used by the queries of an entity. Needs
+     * 'hibernate.cache.use_query_cache' enabled.
+     *
+     * @param type
+     * @return
+     */
+    public static String getQueryCacheRegion(Class<?> type) {
+        return type.getName() + QUERY_REGION_SUFFIX;
+    }
+
+    /**
+     * Removes an element and its collections from the second level cache.
+     *
+     * @param sessionFactory
+     * @param type
+     * @param id
+     */
+    public static void evict(SessionFactory sessionFactory, Class<?> type, Object id) {
+        final Cache cache = sessionFactory.getCache();
+        if (cache == null || id == null) {
+            return;
+        }
+        cache.evictEntityData(type, id);
+        for (String role : getCollectionRoles(sessionFactory, type)) {
+            cache.evictCollectionData(role, id);
+        }
+    }
+
+    /**
+     * Cache usage of the entity, its collections and its query region. Regions
+     * not cached or not used yet are skipped.
+     *
+     * @param sessionFactory
+     * @param type
+     * @return
+     */
+    public static List<CacheStatistics> getCacheStatistics(SessionFactory sessionFactory, Class<?> type) {
+        final List<CacheStatistics> cacheStatistics = new ArrayList<>();
+        final Statistics statistics = sessionFactory.getStatistics();
+        addCacheStatistics(cacheStatistics, type.getName(), statistics.getEntityStatistics(type.getName()));
+        for (String role : getCollectionRoles(sessionFactory, type)) {
+            addCacheStatistics(cacheStatistics, role, statistics.getCollectionStatistics(role));
+        }
+        final CacheRegionStatistics queryStatistics = statistics.getQueryRegionStatistics(getQueryCacheRegion(type));
+        if (queryStatistics != null) {
+            cacheStatistics.add(new CacheStatistics(getQueryCacheRegion(type), queryStatistics.getRegionName(),
+                    queryStatistics.getHitCount(), queryStatistics.getMissCount(), queryStatistics.getPutCount()));
+        }
+        return cacheStatistics;
+    }
+
+    private static void addCacheStatistics(List<CacheStatistics> cacheStatistics, String name, CacheableDataStatistics statistics) {
+        if (statistics != null && statistics.getCacheRegionName() != null) {
+            cacheStatistics.add(new CacheStatistics(name, statistics.getCacheRegionName(), statistics.getCacheHitCount(),
+                    statistics.getCacheMissCount(), statistics.getCachePutCount()));
+        }
+    }
+
+    /**
+     * Collection roles of an entity, as used by the collection cache regions.
+     * The roles are taken from the mapping, as collections declared in a
+     * superclass use its name (i.e. 'Parent.children') and not the name of
+     * the entity.
+     *
+     * @param sessionFactory
+     * @param type
+     * @return
+     */
+    public static List<String> getCollectionRoles(SessionFactory sessionFactory, Class<?> type) {
+        final List<String> roles = new ArrayList<>();
+        sessionFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel().getEntityDescriptor(type)
+                .forEachAttributeMapping(attribute -> {
+                    if (attribute.isPluralAttributeMapping()) {
+                        roles.add(attribute.asPluralAttributeMapping().getCollectionDescriptor().getRole());
+                    }
+                });
+        return roles;
+    }
+}
@@ -0,0 +1,85 @@
+package com.biit.persistence.utils;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.beans.IntrospectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Caches the comparators by class, properties and directions, so the bean
+ * introspection and the compilation of the getters is only done once. The
+ * comparators are stored with a {@link ClassValue}, so they do not prevent
+ * the class (and its class loader) from being unloaded.
+ */
+public final class ComparatorFactory {
+    private static final AtomicReference<ClassValue<Map<List<Object>, ReflectionComparator<?>>>> COMPARATORS =
+            new AtomicReference<>(createCache());
+
+    private ComparatorFactory() {
+        // Private constructor to hide the implicit public one.
+    }
+
+    /**
+     * Gets a comparator that sorts the elements by the given properties.
+     *
+     * @param clazz
+     * @param propertyId
+     * @param ascending
+     * @param <T>
+     * @return
+     * @throws IntrospectionException
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ReflectionComparator<T> getComparator(Class<T> clazz, Object[] propertyId, boolean[] ascending)
+            throws IntrospectionException {
+        final List<Boolean> directions = new ArrayList<>();
+        for (boolean direction : ascending) {
+            directions.add(direction);
+        }
+        // Copies, as the caller can reuse the arrays.
+        final List<Object> key = List.of(List.of(propertyId.clone()), List.copyOf(directions));
+        final Map<List<Object>, ReflectionComparator<?>> comparators = COMPARATORS.get().get(clazz);
+        ReflectionComparator<?> comparator = comparators.get(key);
+        if (comparator == null) {
+            comparator = new ReflectionComparator<>(clazz, propertyId, ascending);
+            comparators.putIfAbsent(key, comparator);
+        }
+        return (ReflectionComparator<T>) comparator;
+    }
+
+    public static void clear() {
+        COMPARATORS.set(createCache());
+    }
+
+    private static ClassValue<Map<List<Object>, ReflectionComparator<?>>> createCache() {
+        return new ClassValue<>() {
+            @Override
+            protected Map<List<Object>, ReflectionComparator<?>> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+    }
+}
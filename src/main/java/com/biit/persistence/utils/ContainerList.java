@@ -29,19 +29,33 @@ import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+/**
+ * List of elements that tracks the additions, updates and removals to store
+ * them later using a {@link IDataProvider}.
+ * <p>
+ * By default, all elements are loaded on creation. In paged mode, elements are
+ * read from the provider by pages as requested, and only a limited number of
+ * pages are kept in memory. Changes are kept apart from the pages: elements
+ * can be updated, removed or appended at the end, but not inserted in the
+ * middle. A paged container can be sorted and filtered only if its provider
+ * is a {@link IQueryDataProvider}.
+ */
 public class ContainerList<T> extends AbstractList<T> implements Serializable, IIndexedList, IDataContainer {
     private static final long serialVersionUID = 7107564701510121074L;
 
     private final Class<T> clazz;
-    private final List<T> view;
+    // Null if paged.
+    private final IndexedView<T> view;
+    // Null if not paged.
+    private final PagedView pagedView;
     private final Set<T> addedElements;
     private final Set<T> modifiedElements;
     private final Set<T> removedElements;
@@ -52,19 +66,56 @@ public class ContainerList<T> extends AbstractList<T> implements Serializable, I
     public ContainerList(Class<T> clazz, IDataProvider<T> provider, IKeyGenerator<T> keyGenerator) {
         super();
         this.clazz = clazz;
-        view = new ArrayList<>();
+        view = new IndexedView<>();
         addedElements = new LinkedHashSet<>();
         modifiedElements = new LinkedHashSet<>();
         removedElements = new LinkedHashSet<>();
         codex = new HashMap<>();
         this.provider = provider;
         this.keyGenerator = keyGenerator;
+        pagedView = null;
         view.addAll(provider.get(0, provider.size()));
         for (T element : view) {
             codex.put(keyGenerator.generate(element), element);
         }
     }
 
+    /**
+     * Creates a paged container. Elements are retrieved from the provider when
+     * requested and not on creation.
+     *
+     * @param clazz
+     * @param provider
+     * @param keyGenerator
+     * @param pageSize     number of elements retrieved on each request to the provider.
+     * @param maxPages     max number of pages kept in memory.
+     */
+    public ContainerList(Class<T> clazz, IDataProvider<T> provider, IKeyGenerator<T> keyGenerator, int pageSize, int maxPages) {
+        super();
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be a positive number.");
+        }
+        this.clazz = clazz;
+        view = null;
+        addedElements = new LinkedHashSet<>();
+        modifiedElements = new LinkedHashSet<>();
+        removedElements = new LinkedHashSet<>();
+        // Only for elements that are not in the provider.
+        codex = new HashMap<>();
+        this.provider = provider;
+        this.keyGenerator = keyGenerator;
+        pagedView = new PagedView(pageSize, maxPages);
+    }
+
+    /**
+     * If true, elements are retrieved from the provider by pages.
+     *
+     * @return
+     */
+    public boolean isPaged() {
+        return pagedView != null;
+    }
+
     public void update(T originalElement) {
         update(originalElement, originalElement);
     }
@@ -72,7 +123,17 @@ public class ContainerList<T> extends AbstractList<T> implements Serializable, I
     public void update(T originalElement, T modifiedElement) {
         // Modify without triggering a delete operation.
         try {
-            view.set(view.indexOf(originalElement), modifiedElement);
+            if (pagedView != null) {
+                if (!pagedView.update(originalElement, modifiedElement)) {
+                    return;
+                }
+            } else {
+                final int index = view.indexOf(originalElement);
+                if (index < 0) {
+                    return;
+                }
+                view.set(index, modifiedElement);
+            }
             if (addedElements.contains(originalElement)) {
                 addedElements.remove(originalElement);
                 addedElements.add(modifiedElement);
@@ -89,7 +150,7 @@ public class ContainerList<T> extends AbstractList<T> implements Serializable, I
 
     @Override
     public T set(int index, T element) {
-        final T currentElement = view.set(index, element);
+        final T currentElement = pagedView != null ? pagedView.set(index, element) : view.set(index, element);
         if (currentElement != null) {
             removeElement(currentElement);
             addElement(currentElement);
@@ -99,7 +160,9 @@ public class ContainerList<T> extends AbstractList<T> implements Serializable, I
 
     @Override
     public boolean add(T element) {
-        if (!view.add(element)) {
+        if (pagedView != null) {
+            pagedView.add(element);
+        } else if (!view.add(element)) {
             return false;
         }
         addElement(element);
@@ -113,7 +176,11 @@ public class ContainerList<T> extends AbstractList<T> implements Serializable, I
 
     @Override
     public void add(int index, T element) {
-        view.add(index, element);
+        if (pagedView != null) {
+            pagedView.add(index, element);
+        } else {
+            view.add(index, element);
+        }
         addElement(element);
     }
 
@@ -121,7 +188,13 @@ public class ContainerList<T> extends AbstractList<T> implements Serializable, I
     @Override
     public boolean remove(Object o) {
         final T elementToRemove = (T) o;
-        if (!view.remove(elementToRemove)) {
+        if (pagedView != null) {
+            final int index = indexOf(elementToRemove);
+            if (index < 0) {
+                return false;
+            }
+            pagedView.remove(index);
+        } else if (!view.remove(elementToRemove)) {
             return false;
         }
         removeElement(elementToRemove);
@@ -130,7 +203,7 @@ public class ContainerList<T> extends AbstractList<T> implements Serializable, I
 
     @Override
     public T remove(int index) {
-        final T elementToRemove = view.remove(index);
+        final T elementToRemove = pagedView != null ? pagedView.remove(index) : view.remove(index);
         removeElement(elementToRemove);
         return elementToRemove;
     }
@@ -149,39 +222,50 @@ public class ContainerList<T> extends AbstractList<T> implements Serializable, I
 
     @Override
     public T get(int index) {
+        if (pagedView != null) {
+            return pagedView.get(index);
+        }
         return view.get(index);
     }
 
     @Override
     public int size() {
+        if (pagedView != null) {
+            return pagedView.size();
+        }
         return view.size();
     }
 
+    @Override
+    public int indexOf(Object o) {
+        if (pagedView != null) {
+            final int index = pagedView.indexOf(o);
+            // Not in the cached pages, must be searched.
+            return index != PagedView.UNKNOWN_INDEX ? index : super.indexOf(o);
+        }
+        return view.indexOf(o);
+    }
+
     @Override
     public T getByKey(Object key) {
+        if (pagedView != null) {
+            return pagedView.getByKey(key);
+        }
         return codex.get(key);
     }
 
     @Override
     public void commit() {
-        final Iterator<T> removeItr = removedElements.iterator();
-        final Iterator<T> updateItr = modifiedElements.iterator();
-        final Iterator<T> addItr = addedElements.iterator();
-
-        while (removeItr.hasNext()) {
-            final T next = removeItr.next();
-            provider.remove(next);
-            removeItr.remove();
-        }
-        while (updateItr.hasNext()) {
-            final T next = updateItr.next();
-            provider.update(next);
-            updateItr.remove();
-        }
-        while (addItr.hasNext()) {
-            final T next = addItr.next();
-            provider.add(next);
-            addItr.remove();
+        // All changes are sent together, so the provider can store them in a
+        // single transaction. If it fails, changes are kept for a new commit.
+        provider.commit(new ArrayList<>(removedElements), new ArrayList<>(modifiedElements),
+                new ArrayList<>(addedElements));
+        removedElements.clear();
+        modifiedElements.clear();
+        addedElements.clear();
+        if (pagedView != null) {
+            // Changes are now in the provider.
+            pagedView.reset();
         }
     }
 
@@ -193,7 +277,15 @@ public class ContainerList<T> extends AbstractList<T> implements Serializable, I
         return keyGenerator;
     }
 
+    /**
+     * Keys of all elements. If paged, all pages are read.
+     *
+     * @return
+     */
     public Collection<Object> keys() {
+        if (pagedView != null) {
+            return getKeys();
+        }
         return codex.keySet();
     }
 
@@ -202,6 +294,9 @@ public class ContainerList<T> extends AbstractList<T> implements Serializable, I
     }
 
     public boolean containsKey(Object itemId) {
+        if (pagedView != null) {
+            return pagedView.getByKey(itemId) != null;
+        }
         return codex.containsKey(itemId);
     }
 
@@ -243,17 +338,66 @@ public class ContainerList<T> extends AbstractList<T> implements Serializable, I
     }
 
     public void sort(Object[] propertyId, boolean[] ascending) {
+        if (pagedView != null) {
+            getQueryProvider().sort(propertyId, ascending);
+            pagedView.reset();
+            return;
+        }
         try {
-            final Comparator<T> comparator = new ReflectionComparator<T>(clazz, propertyId, ascending);
-            Collections.sort(this, comparator);
+            // Elements are only moved, they are not marked as modified.
+            view.reorder(ComparatorFactory.getComparator(clazz, propertyId, ascending).sort(view));
         } catch (IntrospectionException e) {
             StorableObjectLogger.errorMessage(ContainerList.class.getName(), e);
         }
     }
 
+    /**
+     * Only the elements that fulfill the filter are shown. Only for paged
+     * containers with a {@link IQueryDataProvider}.
+     *
+     * @param filter
+     */
+    public void addFilter(Filter filter) {
+        getQueryProvider().addFilter(filter);
+        pagedView.reset();
+    }
+
+    public void removeFilter(Filter filter) {
+        getQueryProvider().removeFilter(filter);
+        pagedView.reset();
+    }
+
+    public void removeAllFilters() {
+        getQueryProvider().removeAllFilters();
+        pagedView.reset();
+    }
+
+    public Collection<Filter> getFilters() {
+        if (pagedView != null && provider instanceof IQueryDataProvider) {
+            return ((IQueryDataProvider<T>) provider).getFilters();
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Provider that sorts and filters a paged container. As the position of
+     * the elements changes, changes must be committed before.
+     *
+     * @return
+     */
+    private IQueryDataProvider<T> getQueryProvider() {
+        if (pagedView == null || !(provider instanceof IQueryDataProvider)) {
+            throw new UnsupportedOperationException("Only paged containers with a query provider can be sorted or filtered in the provider.");
+        }
+        if (!addedElements.isEmpty() || !modifiedElements.isEmpty() || !removedElements.isEmpty()) {
+            throw new IllegalStateException("Changes must be committed before sorting or filtering a paged container.");
+        }
+        return (IQueryDataProvider<T>) provider;
+    }
+
     public List<Object> getKeys() {
         final List<Object> keys = new ArrayList<>();
-        for (T element : view) {
+        for (T element : this) {
             keys.add(getKeyGenerator().generate(element));
         }
         return keys;
@@ -270,4 +414,245 @@ public class ContainerList<T> extends AbstractList<T> implements Serializable, I
         add(index, newItem);
         return newItem;
     }
+
+    /**
+     * Elements of a paged container. Pages are read from the provider and
+     * cached with a max number of pages. Changes are stored apart:
+     * <ul>
+     * <li>Removed elements by their position in the provider.</li>
+     * <li>Updated elements by their key, and replaced elements by their
+     * position in the provider.</li>
+     * <li>Added elements, that go after the provider elements.</li>
+     * </ul>
+     */
+    private final class PagedView implements Serializable {
+        private static final long serialVersionUID = -4420867394452418710L;
+        private static final int UNKNOWN_INDEX = -2;
+
+        private final int pageSize;
+        private final LruCache<Integer, List<T>> cachedPages;
+        // Key -> provider position of the elements in the cached pages.
+        private final Map<Object, Integer> cachedPositions;
+        private Integer providerSize;
+
+        // Sorted provider positions.
+        private final List<Integer> removedPositions;
+        private final Set<Object> removedKeys;
+        private final Map<Object, T> updatedElements;
+        private final Map<Integer, T> replacedElements;
+        private final List<T> tail;
+
+        private PagedView(int pageSize, int maxPages) {
+            this.pageSize = pageSize;
+            cachedPositions = new HashMap<>();
+            cachedPages = new LruCache<>(maxPages, (pageNumber, page) -> {
+                for (T element : page) {
+                    cachedPositions.remove(keyGenerator.generate(element));
+                }
+            });
+            removedPositions = new ArrayList<>();
+            removedKeys = new HashSet<>();
+            updatedElements = new HashMap<>();
+            replacedElements = new HashMap<>();
+            tail = new ArrayList<>();
+        }
+
+        private int getProviderSize() {
+            if (providerSize == null) {
+                providerSize = provider.size();
+            }
+            return providerSize;
+        }
+
+        /**
+         * Provider elements that are not removed.
+         *
+         * @return
+         */
+        private int getRemainingSize() {
+            return getProviderSize() - removedPositions.size();
+        }
+
+        private int size() {
+            return getRemainingSize() + tail.size();
+        }
+
+        private T get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (index >= getRemainingSize()) {
+                return tail.get(index - getRemainingSize());
+            }
+            return getProviderElement(getProviderPosition(index));
+        }
+
+        /**
+         * Position in the provider of the element at 'index'. Is the first
+         * not removed position that has 'index' not removed positions before.
+         *
+         * @param index
+         * @return
+         */
+        private int getProviderPosition(int index) {
+            int lower = index;
+            int upper = index + removedPositions.size();
+            while (lower < upper) {
+                final int middle = (lower + upper) >>> 1;
+                // Not removed positions until 'middle', included.
+                if (middle + 1 - getRemovedBefore(middle + 1) <= index) {
+                    lower = middle + 1;
+                } else {
+                    upper = middle;
+                }
+            }
+            return lower;
+        }
+
+        private int getRemovedBefore(int position) {
+            final int insertionPoint = Collections.binarySearch(removedPositions, position);
+            return insertionPoint >= 0 ? insertionPoint : -insertionPoint - 1;
+        }
+
+        private boolean isRemoved(int position) {
+            return Collections.binarySearch(removedPositions, position) >= 0;
+        }
+
+        private T getProviderElement(int position) {
+            final T replacedElement = replacedElements.get(position);
+            if (replacedElement != null) {
+                return replacedElement;
+            }
+            final T element = getPage(position / pageSize).get(position % pageSize);
+            final T updatedElement = updatedElements.get(keyGenerator.generate(element));
+            return updatedElement != null ? updatedElement : element;
+        }
+
+        private List<T> getPage(int pageNumber) {
+            List<T> page = cachedPages.get(pageNumber);
+            if (page == null) {
+                page = new ArrayList<>(provider.get(pageNumber * pageSize, pageSize));
+                // Positions are registered before caching the page, as it can discard other pages.
+                for (int i = 0; i < page.size(); i++) {
+                    cachedPositions.put(keyGenerator.generate(page.get(i)), pageNumber * pageSize + i);
+                }
+                cachedPages.put(pageNumber, page);
+            }
+            return page;
+        }
+
+        /**
+         * Position of the element if it is added or in a cached page.
+         *
+         * @param o
+         * @return the position, -1 if it is not in the list or UNKNOWN_INDEX
+         * if the pages must be searched.
+         */
+        @SuppressWarnings("unchecked")
+        private int indexOf(Object o) {
+            final int tailIndex = tail.indexOf(o);
+            if (tailIndex >= 0) {
+                return getRemainingSize() + tailIndex;
+            }
+            final Object key;
+            try {
+                key = keyGenerator.generate((T) o);
+            } catch (ClassCastException e) {
+                return -1;
+            }
+            if (removedKeys.contains(key)) {
+                return -1;
+            }
+            final Integer position = cachedPositions.get(key);
+            if (position == null || replacedElements.containsKey(position) || isRemoved(position)) {
+                return UNKNOWN_INDEX;
+            }
+            return position - getRemovedBefore(position);
+        }
+
+        private T getByKey(Object key) {
+            if (removedKeys.contains(key)) {
+                return null;
+            }
+            final T addedElement = codex.get(key);
+            if (addedElement != null) {
+                return addedElement;
+            }
+            final T updatedElement = updatedElements.get(key);
+            if (updatedElement != null) {
+                return updatedElement;
+            }
+            final Integer position = cachedPositions.get(key);
+            if (position != null && !replacedElements.containsKey(position) && !isRemoved(position)) {
+                return getProviderElement(position);
+            }
+            return provider.getByKey(key);
+        }
+
+        private boolean update(T originalElement, T modifiedElement) {
+            final int tailIndex = tail.indexOf(originalElement);
+            if (tailIndex >= 0) {
+                tail.set(tailIndex, modifiedElement);
+                return true;
+            }
+            final Object key = keyGenerator.generate(originalElement);
+            if (removedKeys.contains(key)) {
+                return false;
+            }
+            updatedElements.put(key, modifiedElement);
+            return true;
+        }
+
+        private T set(int index, T element) {
+            final T currentElement = get(index);
+            if (index >= getRemainingSize()) {
+                tail.set(index - getRemainingSize(), element);
+            } else {
+                replacedElements.put(getProviderPosition(index), element);
+            }
+            return currentElement;
+        }
+
+        private void add(T element) {
+            tail.add(element);
+        }
+
+        private void add(int index, T element) {
+            if (index < getRemainingSize()) {
+                throw new UnsupportedOperationException("Elements can only be added at the end of a paged container.");
+            }
+            tail.add(index - getRemainingSize(), element);
+        }
+
+        private T remove(int index) {
+            final T element = get(index);
+            if (index >= getRemainingSize()) {
+                tail.remove(index - getRemainingSize());
+                return element;
+            }
+            final int position = getProviderPosition(index);
+            removedPositions.add(-Collections.binarySearch(removedPositions, position) - 1, position);
+            replacedElements.remove(position);
+            final Object key = keyGenerator.generate(element);
+            updatedElements.remove(key);
+            removedKeys.add(key);
+            return element;
+        }
+
+        /**
+         * Discards the cached pages and the changes, as they are already
+         * stored in the provider.
+         */
+        private void reset() {
+            cachedPages.clear();
+            cachedPositions.clear();
+            providerSize = null;
+            removedPositions.clear();
+            removedKeys.clear();
+            updatedElements.clear();
+            replacedElements.clear();
+            tail.clear();
+            codex.clear();
+        }
+    }
 }
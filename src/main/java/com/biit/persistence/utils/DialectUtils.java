@@ -0,0 +1,123 @@
+package com.biit.persistence.utils;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+public final class DialectUtils {
+    // Used when the dialect has no limit of elements in an IN clause. Bigger
+    // values are not improving the performance and make huge statements.
+    public static final int DEFAULT_IN_CLAUSE_SIZE = 500;
+
+    private DialectUtils() {
+        // Private constructor to hide the implicit public one.
+    }
+
+    /**
+     * Max number of parameters that can be sent in an IN clause for the
+     * dialect used by the session factory.
+     *
+     * @param sessionFactory
+     * @return
+     */
+    public static int getInClauseSize(SessionFactory sessionFactory) {
+        final int limit = getDialect(sessionFactory).getInExpressionCountLimit();
+        if (limit <= 0) {
+            return DEFAULT_IN_CLAUSE_SIZE;
+        }
+        return Math.min(limit, DEFAULT_IN_CLAUSE_SIZE);
+    }
+
+    /**
+     * Query that gets the estimated number of rows of a table from the
+     * database statistics, without scanning it. The table name is its only
+     * parameter. Available for MySQL/MariaDB, PostgreSQL and H2.
+     *
+     * @param dialect
+     * @return the query or null if the dialect is not supported.
+     */
+    public static String getApproximateRowCountQuery(Dialect dialect) {
+        if (dialect instanceof MySQLDialect) {
+            return "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+        }
+        if (dialect instanceof PostgreSQLDialect) {
+            // Negative if the table has never been analyzed.
+            return "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = to_regclass(?)";
+        }
+        if (dialect instanceof H2Dialect) {
+            return "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = SCHEMA() "
+                    + "AND UPPER(TABLE_NAME) = UPPER(?)";
+        }
+        return null;
+    }
+
+    /**
+     * Gets the estimated number of rows of the table of an entity.
+     *
+     * @param session
+     * @param type
+     * @param query   see {@link #getApproximateRowCountQuery(Dialect)}.
+     * @return the number of rows or null if it is not available.
+     */
+    public static Long getApproximateRowCount(Session session, Class<?> type, String query) {
+        if (query == null) {
+            return null;
+        }
+        final String tableName = getTableName(session.getSessionFactory(), type);
+        return session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(query)) {
+                statement.setString(1, tableName);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next()) {
+                        final long rows = resultSet.getLong(1);
+                        if (!resultSet.wasNull() && rows >= 0) {
+                            return rows;
+                        }
+                    }
+                    return null;
+                }
+            }
+        });
+    }
+
+    public static Dialect getDialect(SessionFactory sessionFactory) {
+        return sessionFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    /**
+     * Table of an entity, without schema or quotes.
+     */
+    private static String getTableName(SessionFactory sessionFactory, Class<?> type) {
+        final String tableName = sessionFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel()
+                .getEntityDescriptor(type).getMappedTableDetails().getTableName();
+        return tableName.substring(tableName.lastIndexOf('.') + 1).replaceAll("[`\"\\[\\]]", "");
+    }
+}
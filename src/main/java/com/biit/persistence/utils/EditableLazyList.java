@@ -22,17 +22,58 @@ package com.biit.persistence.utils;
  */
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
+/**
+ * LazyList that allows adding, updating and removing elements without
+ * persisting them. Added elements are merged with the backend elements using
+ * the order defined by the provider.
+ * <p>
+ * Added elements are kept sorted and removed elements are indexed by their
+ * backend position. Then, the position of an element can be obtained with a
+ * binary search, limited to a window of size 'added + removed' around the
+ * requested index.
+ * <p>
+ * The binary search needs the backend elements to keep their order. If an
+ * update moves a backend element out of its place, it is hidden from its
+ * backend position and handled as an added element.
+ * <p>
+ * The backend position of an element is recorded when it is retrieved, or
+ * searched with the provider order. The backend is never read sequentially,
+ * so an element must be retrieved from this list before updating it if its
+ * order has already been changed. After a cache clear (i.e. a sort), removed
+ * or moved elements that cannot be found again are hidden once their page is
+ * loaded. Until then, they are shown in their backend position.
+ */
 public class EditableLazyList<T> extends LazyList<T> {
     private static final long serialVersionUID = -6355280347802892380L;
 
+    // Sorted using the provider order.
     private final List<T> addedElements;
-    private final List<T> updatedElements;
-    private final List<T> removedElements;
+    // Original element -> most recent version.
+    private final Map<T, T> updatedElements;
+    private final Set<T> removedElements;
+    // Backend elements that have changed their order. Are also in 'addedElements' once located.
+    private final Set<T> movedElements;
+    // Backend positions of the removed and moved elements already located.
+    private final Map<T, Integer> hiddenPositions;
+    // Sorted values of 'hiddenPositions'.
+    private final List<Integer> removedPositions;
+    // Removed and moved elements not located yet, that must be searched with the provider order.
+    private final Set<T> unsearchedElements;
+    // Removed and moved elements not found by the search, located when they are retrieved.
+    private final Set<T> unresolvedElements;
+    private boolean unresolvedElementRetrieved = false;
+    // Backend position of the retrieved elements, since the last cache clear.
+    private transient Map<T, Integer> retrievedPositions;
     private final HashMap<T, Integer> elementPositions;
 
     public EditableLazyList(OrdedEntityProvider<T> entityProvider, int pageSize, int maxPages) {
@@ -43,17 +84,20 @@ public class EditableLazyList<T> extends LazyList<T> {
                             com.biit.persistence.utils.LazyList.CountProvider countProvider, int pageSize, int maxPages) {
         super(orderedPageProvider, pageProvider, countProvider, pageSize, maxPages);
         addedElements = new ArrayList<>();
-        updatedElements = new ArrayList<>();
-        removedElements = new ArrayList<>();
+        updatedElements = new LinkedHashMap<>();
+        removedElements = new LinkedHashSet<>();
+        movedElements = new LinkedHashSet<>();
+        hiddenPositions = new HashMap<>();
+        removedPositions = new ArrayList<>();
+        unsearchedElements = new LinkedHashSet<>();
+        unresolvedElements = new LinkedHashSet<>();
         elementPositions = new HashMap<>();
     }
 
     @Override
     public boolean add(T item) {
-        final boolean result = addedElements.add(item);
-        if (!result) {
-            return false;
-        }
+        resolvePositions();
+        addedElements.add(getAddedInsertionPoint(item), item);
         elementPositions.clear();
         return true;
     }
@@ -61,117 +105,434 @@ public class EditableLazyList<T> extends LazyList<T> {
     @SuppressWarnings("unchecked")
     @Override
     public boolean remove(Object item) {
-        if (addedElements.contains(item)) {
+        resolvePositions();
+        if (removedElements.contains(item)) {
+            return false;
+        }
+        elementPositions.clear();
+        if (movedElements.remove(item)) {
+            // Its backend position is still hidden, or pending to be located.
             addedElements.remove(item);
-        } else {
-            if (updatedElements.contains(item)) {
-                updatedElements.remove(item);
-            }
+            updatedElements.remove(item);
             removedElements.add((T) item);
+            return true;
         }
-        elementPositions.clear();
+        if (addedElements.remove(item)) {
+            return true;
+        }
+        final int backendIndex = getKnownBackendIndex(item);
+        if (backendIndex < 0) {
+            return false;
+        }
+        updatedElements.remove(item);
+        removedElements.add((T) item);
+        locate((T) item, backendIndex);
         return true;
     }
 
     public boolean update(T item) {
-        if (addedElements.contains(item)) {
-            addedElements.remove(item);
-            addedElements.add(item);
+        resolvePositions();
+        if (removedElements.contains(item)) {
+            return false;
+        }
+        elementPositions.clear();
+        if (addedElements.remove(item)) {
+            // Order can be changed.
+            addedElements.add(getAddedInsertionPoint(item), item);
             return true;
-        } else if (updatedElements.contains(item)) {
-            updatedElements.remove(item);
-            updatedElements.add(item);
+        }
+        if (movedElements.contains(item)) {
+            // Not located yet, shown in its backend position.
+            updatedElements.put(item, item);
             return true;
-        } else if (removedElements.contains(item)) {
+        }
+        final int backendIndex = getKnownBackendIndex(item);
+        if (backendIndex < 0) {
             return false;
-        } else if (super.contains(item)) {
-            removedElements.add(item);
-            return true;
+        }
+        if (isInOrder(backendIndex, item)) {
+            updatedElements.put(item, item);
         } else {
+            // Hidden from the backend position and sorted with the added elements.
+            movedElements.add(item);
+            updatedElements.put(item, item);
+            locate(item, backendIndex);
+        }
+        return true;
+    }
+
+    /**
+     * Hides a removed or moved element from its backend position. If the
+     * position is not known, it is hidden once retrieved.
+     *
+     * @param element
+     * @param backendIndex
+     */
+    private void locate(T element, int backendIndex) {
+        if (backendIndex < 0) {
+            unresolvedElements.add(element);
+            return;
+        }
+        final int insertionPoint = Collections.binarySearch(removedPositions, backendIndex);
+        if (insertionPoint >= 0) {
+            // Position already used by another element, the backend has changed.
+            removedElements.remove(element);
+            movedElements.remove(element);
+            return;
+        }
+        removedPositions.add(-insertionPoint - 1, backendIndex);
+        hiddenPositions.put(element, backendIndex);
+        if (movedElements.contains(element)) {
+            final T mostRecentVersion = updatedElements.remove(element);
+            addedElements.add(getAddedInsertionPoint(mostRecentVersion), mostRecentVersion);
+        }
+        elementPositions.clear();
+    }
+
+    /**
+     * Hides the removed and moved elements whose backend position has been
+     * found since the last call.
+     */
+    private void resolvePositions() {
+        if (!unsearchedElements.isEmpty()) {
+            final List<T> elements = new ArrayList<>(unsearchedElements);
+            unsearchedElements.clear();
+            for (T element : elements) {
+                locate(element, getKnownBackendIndex(element));
+            }
+        }
+        if (unresolvedElementRetrieved) {
+            unresolvedElementRetrieved = false;
+            final Iterator<T> iterator = unresolvedElements.iterator();
+            while (iterator.hasNext()) {
+                final T element = iterator.next();
+                final Integer backendIndex = getRetrievedPositions().get(element);
+                if (backendIndex != null) {
+                    iterator.remove();
+                    locate(element, backendIndex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if the element can be at the given backend position, comparing
+     * it with the previous and next visible backend elements.
+     *
+     * @param backendIndex
+     * @param item
+     * @return
+     */
+    private boolean isInOrder(int backendIndex, T item) {
+        int previous = backendIndex - 1;
+        while (previous >= 0 && isRemoved(previous)) {
+            previous--;
+        }
+        if (previous >= 0 && compareElements(getMostRecentVersion(previous), item) > 0) {
             return false;
         }
+        final int next = getNextVisible(backendIndex + 1);
+        return next >= getBackendSize() || compareElements(item, getMostRecentVersion(next)) <= 0;
+    }
+
+    /**
+     * First backend position, starting at the given one, that is not removed
+     * or moved.
+     *
+     * @param backendIndex
+     * @return the position or the backend size if there is none.
+     */
+    private int getNextVisible(int backendIndex) {
+        int insertionPoint = Collections.binarySearch(removedPositions, backendIndex);
+        if (insertionPoint < 0) {
+            return Math.min(backendIndex, getBackendSize());
+        }
+        int position = backendIndex;
+        while (insertionPoint < removedPositions.size() && removedPositions.get(insertionPoint) == position) {
+            insertionPoint++;
+            position++;
+        }
+        return Math.min(position, getBackendSize());
     }
 
     @Override
     public boolean contains(Object o) {
-        if (addedElements.contains(o) || updatedElements.contains(o)) {
+        if (updatedElements.containsKey(o) || addedElements.contains(o)) {
             return true;
-        } else if (removedElements.contains(o)) {
-            return false;
-        } else {
-            return super.contains(o);
         }
+        return indexOf(o) >= 0;
     }
 
     @Override
     public void clearCache() {
         elementPositions.clear();
+        if (retrievedPositions != null) {
+            retrievedPositions.clear();
+        }
+        // Backend order may have changed. Moved elements are shown in their backend position until located again.
+        for (T movedElement : movedElements) {
+            if (hiddenPositions.containsKey(movedElement)) {
+                addedElements.remove(movedElement);
+                updatedElements.put(movedElement, movedElement);
+            }
+        }
+        hiddenPositions.clear();
+        removedPositions.clear();
+        unresolvedElements.clear();
+        unresolvedElementRetrieved = false;
+        unsearchedElements.clear();
+        unsearchedElements.addAll(removedElements);
+        unsearchedElements.addAll(movedElements);
+        addedElements.sort(this::compareElements);
         super.clearCache();
     }
 
     @Override
     public int size() {
-        return super.size() + addedElements.size() - removedElements.size();
+        resolvePositions();
+        return getBackendSize() + addedElements.size() - removedPositions.size();
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public int indexOf(Object o) {
-        final Iterator<T> itr = iterator();
-        int index = 0;
-        while (itr.hasNext()) {
-            if (Objects.equals(itr.next(), o)) {
-                return index;
+        resolvePositions();
+        final Integer cachedPosition = elementPositions.get(o);
+        if (cachedPosition != null) {
+            return cachedPosition;
+        }
+        int position;
+        do {
+            resolvePositions();
+            position = getPosition(o);
+            // Retrieving the pages can locate removed or moved elements, that change the positions.
+        } while (isLocationPending());
+        if (position >= 0) {
+            elementPositions.put((T) o, position);
+        }
+        return position;
+    }
+
+    private boolean isLocationPending() {
+        return unresolvedElementRetrieved || !unsearchedElements.isEmpty();
+    }
+
+    private int getPosition(Object o) {
+        final int addedIndex = addedElements.indexOf(o);
+        if (addedIndex >= 0) {
+            // Number of backend elements that goes before.
+            final T addedElement = addedElements.get(addedIndex);
+            int lower = 0;
+            int upper = getBackendSize();
+            while (lower < upper) {
+                final int middle = (lower + upper) >>> 1;
+                // Hidden positions use the next visible element, as their order is not valid.
+                final int visible = getNextVisible(middle);
+                if (visible < getBackendSize()
+                        && compareElements(getMostRecentVersion(visible), addedElement) < 0) {
+                    lower = middle + 1;
+                } else {
+                    upper = middle;
+                }
             }
-            index++;
+            return addedIndex + lower - getRemovedBefore(lower);
         }
-        return -1;
+        if (removedElements.contains(o) && !unresolvedElements.contains(o)) {
+            return -1;
+        }
+        final int backendIndex = getKnownBackendIndex(o);
+        if (backendIndex < 0 || isRemoved(backendIndex)) {
+            return -1;
+        }
+        return getMergedPosition(backendIndex);
     }
 
     @Override
     public T get(int index) {
-        if (index < 0 || index >= size()) {
-            throw new IndexOutOfBoundsException();
-        }
-
-        int i = 0;
-        int iDb = 0;
-        int iAdded = 0;
-        // Calcule current order
-        for (; i < index && iAdded < addedElements.size() && iDb < super.size(); i++) {
-            final T dbElement = getMostRecentVersion(iDb);
-            final T addedElement = addedElements.get(iAdded);
-            if (getPageOrderedProvider().compare(dbElement, addedElement) < 0) {
-                iDb++;
+        T element;
+        do {
+            resolvePositions();
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException();
+            }
+            element = getMerged(index);
+            // Retrieving the pages can locate removed or moved elements, that change the positions.
+        } while (isLocationPending());
+        return element;
+    }
+
+    private T getMerged(int index) {
+        final int backendSize = getBackendSize();
+        // Find the first visible backend element that is at 'index' or after.
+        // The backend position is at most 'added' elements before and
+        // 'removed' elements after the requested index.
+        int lower = Math.max(0, index - addedElements.size());
+        int upper = Math.min(backendSize, index + removedPositions.size() + 1);
+        while (lower < upper) {
+            final int middle = (lower + upper) >>> 1;
+            // Hidden positions use the next visible element, as their order is not valid.
+            final int visible = getNextVisible(middle);
+            if (visible < backendSize && getMergedPosition(visible) < index) {
+                lower = middle + 1;
             } else {
-                iAdded++;
+                upper = middle;
+            }
+        }
+        final int backendIndex = getNextVisible(lower);
+        if (backendIndex < backendSize && getMergedPosition(backendIndex) == index) {
+            return getMostRecentVersion(backendIndex);
+        }
+        // Is an added element. All previous backend elements not removed are before it.
+        return addedElements.get(index - (backendIndex - getRemovedBefore(backendIndex)));
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+
+            private int index = -1;
+
+            @Override
+            public boolean hasNext() {
+                // Size can decrease when a removed element is located.
+                return index + 1 < size();
             }
+
+            @Override
+            public T next() {
+                index++;
+                return get(index);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Not supported.");
+            }
+        };
+    }
+
+    @Override
+    protected T getBackendElement(int index) {
+        final T element = super.getBackendElement(index);
+        getRetrievedPositions().put(element, index);
+        if (unresolvedElements.contains(element)) {
+            unresolvedElementRetrieved = true;
         }
+        return element;
+    }
+
+    /**
+     * Backend position of an element already retrieved or in a cached page,
+     * or searched using the provider order.
+     *
+     * @param o
+     * @return the position or -1 if not found.
+     */
+    @SuppressWarnings("unchecked")
+    private int getKnownBackendIndex(Object o) {
+        final Integer retrievedPosition = getRetrievedPositions().get(o);
+        if (retrievedPosition != null) {
+            return retrievedPosition;
+        }
+        final int cachedIndex = getCachedBackendIndex(o);
+        if (cachedIndex >= 0) {
+            return cachedIndex;
+        }
+        try {
+            return searchBackendIndex((T) o);
+        } catch (ClassCastException e) {
+            return -1;
+        }
+    }
 
-        // If index has been reached and db and addCache still has elements
-        if (i == index && iAdded < addedElements.size() && iDb < super.size()) {
-            final T dbElement = getMostRecentVersion(iDb);
-            final T addedElement = addedElements.get(iAdded);
-            if (getPageOrderedProvider().compare(dbElement, addedElement) < 0) {
-                return dbElement;
+    /**
+     * Binary search of the element in the backend, using the provider order.
+     * Only the elements with the same order are compared with equals.
+     *
+     * @param element
+     * @return the position or -1 if not found.
+     */
+    private int searchBackendIndex(T element) {
+        final int backendSize = getBackendSize();
+        int lower = 0;
+        int upper = backendSize;
+        while (lower < upper) {
+            final int middle = (lower + upper) >>> 1;
+            if (compareElements(getBackendElement(middle), element) < 0) {
+                lower = middle + 1;
             } else {
-                return addedElement;
+                upper = middle;
             }
-        } else {
-            if (i <= index && iDb < super.size()) {
-                return super.get(iDb + index - i);
+        }
+        for (int i = lower; i < backendSize; i++) {
+            final T candidate = getBackendElement(i);
+            if (candidate.equals(element)) {
+                return i;
+            }
+            if (compareElements(candidate, element) != 0) {
+                break;
+            }
+        }
+        return -1;
+    }
+
+    private Map<T, Integer> getRetrievedPositions() {
+        if (retrievedPositions == null) {
+            retrievedPositions = new WeakHashMap<>();
+        }
+        return retrievedPositions;
+    }
+
+    /**
+     * Position that a visible backend element has in this list.
+     *
+     * @param backendIndex
+     * @return
+     */
+    private int getMergedPosition(int backendIndex) {
+        return backendIndex - getRemovedBefore(backendIndex) + getAddedInsertionPoint(getMostRecentVersion(backendIndex));
+    }
+
+    /**
+     * Number of added elements that go before the given element. An added
+     * element goes before a backend element with the same order.
+     *
+     * @param element
+     * @return
+     */
+    private int getAddedInsertionPoint(T element) {
+        int lower = 0;
+        int upper = addedElements.size();
+        while (lower < upper) {
+            final int middle = (lower + upper) >>> 1;
+            if (compareElements(element, addedElements.get(middle)) >= 0) {
+                lower = middle + 1;
             } else {
-                return addedElements.get(iAdded + index - i);
+                upper = middle;
             }
         }
+        return lower;
+    }
+
+    /**
+     * Number of removed or moved backend elements with a lower backend
+     * position.
+     *
+     * @param backendIndex
+     * @return
+     */
+    private int getRemovedBefore(int backendIndex) {
+        final int insertionPoint = Collections.binarySearch(removedPositions, backendIndex);
+        return insertionPoint >= 0 ? insertionPoint : -insertionPoint - 1;
+    }
+
+    private boolean isRemoved(int backendIndex) {
+        return Collections.binarySearch(removedPositions, backendIndex) >= 0;
     }
 
     private T getMostRecentVersion(int dbIndex) {
-        final T element = super.get(dbIndex);
-        final int updatedIndex = updatedElements.indexOf(element);
-        if (updatedIndex == -1) {
-            return element;
-        } else {
-            return updatedElements.get(updatedIndex);
-        }
+        final T element = getBackendElement(dbIndex);
+        final T updatedElement = updatedElements.get(element);
+        return updatedElement != null ? updatedElement : element;
     }
 }
@@ -0,0 +1,130 @@
+package com.biit.persistence.utils;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Condition over a property of the elements of a container. Used by the
+ * {@link IQueryDataProvider} to filter the elements.
+ */
+public class Filter implements Serializable {
+    private static final long serialVersionUID = -5013271698372917705L;
+
+    public enum Operator {
+
+        EQUAL(false),
+
+        NOT_EQUAL(false),
+
+        GREATER_THAN(true),
+
+        GREATER_THAN_OR_EQUAL(true),
+
+        LESS_THAN(true),
+
+        LESS_THAN_OR_EQUAL(true),
+
+        // Text that starts with the value, ignoring case.
+        STARTS_WITH(true),
+
+        // Text that contains the value, ignoring case.
+        CONTAINS(true),
+
+        IS_NULL(false),
+
+        IS_NOT_NULL(false);
+
+        private final boolean valueRequired;
+
+        Operator(boolean valueRequired) {
+            this.valueRequired = valueRequired;
+        }
+
+        /**
+         * Operators that cannot be used with a null value.
+         *
+         * @return
+         */
+        public boolean isValueRequired() {
+            return valueRequired;
+        }
+    }
+
+    private final String propertyId;
+    private final Operator operator;
+    private final Object value;
+
+    public Filter(String propertyId, Operator operator, Object value) {
+        this.propertyId = Objects.requireNonNull(propertyId);
+        this.operator = Objects.requireNonNull(operator);
+        if (value == null && operator.isValueRequired()) {
+            throw new IllegalArgumentException("Filter operator '" + operator + "' needs a value.");
+        }
+        this.value = value;
+    }
+
+    /**
+     * Filter that does not need a value, as {@link Operator#IS_NULL}.
+     *
+     * @param propertyId
+     * @param operator
+     */
+    public Filter(String propertyId, Operator operator) {
+        this(propertyId, operator, null);
+    }
+
+    public String getPropertyId() {
+        return propertyId;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(propertyId, operator, value);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final Filter other = (Filter) obj;
+        return propertyId.equals(other.propertyId) && operator == other.operator && Objects.equals(value, other.value);
+    }
+
+    @Override
+    public String toString() {
+        return propertyId + " " + operator + (value != null ? " " + value : "");
+    }
+}
@@ -31,9 +31,70 @@ public interface IDataProvider<T> {
 
     void remove(T element);
 
+    /**
+     * Adds several elements. Providers backed by a database should override it
+     * to store all of them at once.
+     *
+     * @param elements
+     */
+    default void addAll(Collection<? extends T> elements) {
+        for (T element : elements) {
+            add(element);
+        }
+    }
+
+    /**
+     * Updates several elements. Providers backed by a database should override
+     * it to store all of them at once.
+     *
+     * @param elements
+     */
+    default void updateAll(Collection<? extends T> elements) {
+        for (T element : elements) {
+            update(element);
+        }
+    }
+
+    /**
+     * Removes several elements. Providers backed by a database should override
+     * it to remove all of them at once.
+     *
+     * @param elements
+     */
+    default void removeAll(Collection<? extends T> elements) {
+        for (T element : elements) {
+            remove(element);
+        }
+    }
+
+    /**
+     * Stores all pending changes of a container. Removals are executed first,
+     * then updates and finally additions.
+     *
+     * @param removed
+     * @param updated
+     * @param added
+     */
+    default void commit(Collection<? extends T> removed, Collection<? extends T> updated, Collection<? extends T> added) {
+        removeAll(removed);
+        updateAll(updated);
+        addAll(added);
+    }
+
     int size();
 
     Collection<? extends T> get(int i, int size);
 
     T newEntity();
+
+    /**
+     * Gets an element by the key used in the container. Used by paged
+     * containers when the element is not in memory.
+     *
+     * @param key
+     * @return the element or null if not found or not supported.
+     */
+    default T getByKey(Object key) {
+        return null;
+    }
 }
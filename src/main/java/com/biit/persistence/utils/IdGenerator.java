@@ -21,16 +21,31 @@ package com.biit.persistence.utils;
  * #L%
  */
 
-import java.util.UUID;
-
+/**
+ * Creates the comparation ids of the storable objects. By default, uses time
+ * ordered UUIDs (see {@link TimeOrderedUuidGenerationStrategy}); the strategy
+ * can be changed with {@link #setStrategy(IIdGenerationStrategy)}, i.e. to
+ * {@link RandomUuidGenerationStrategy} to get the previous random UUIDs.
+ */
 public final class IdGenerator {
+    private static volatile IIdGenerationStrategy strategy = new TimeOrderedUuidGenerationStrategy();
 
     private IdGenerator() {
         // Private constructor to hide the implicit public one.
     }
 
     public static String createId() {
-        final UUID uuid = java.util.UUID.randomUUID();
-        return uuid.toString();
+        return strategy.createId();
+    }
+
+    public static IIdGenerationStrategy getStrategy() {
+        return strategy;
+    }
+
+    public static void setStrategy(IIdGenerationStrategy strategy) {
+        if (strategy == null) {
+            throw new IllegalArgumentException("Id generation strategy cannot be null.");
+        }
+        IdGenerator.strategy = strategy;
     }
 }
@@ -0,0 +1,335 @@
+package com.biit.persistence.utils;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.TreeSet;
+
+/**
+ * List that gets the position of an element and removes elements in
+ * logarithmic time.
+ * <p>
+ * Elements are stored in slots that are never moved on removal: a removed
+ * slot is left empty and a Fenwick tree counts the used slots, so the
+ * position of a slot and the slot of a position are calculated in O(log n).
+ * A map stores the first slot of each element. Inserting in the middle or sorting
+ * moves the elements and the structure is rebuilt in O(n).
+ *
+ * @param <T> the type of the elements.
+ */
+class IndexedView<T> extends AbstractList<T> implements RandomAccess, Serializable {
+    private static final long serialVersionUID = 3342170548823154107L;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Object[] slots;
+    // Used slots.
+    private boolean[] used;
+    // Fenwick tree (1 based) with the used slots.
+    private int[] tree;
+    private int slotCount;
+    private int size;
+    // Element -> first slot that contains it.
+    private final Map<T, Integer> elementSlots;
+    // Element -> all its slots, only for elements that are in more than one slot.
+    private final Map<T, TreeSet<Integer>> duplicatedSlots;
+
+    IndexedView() {
+        slots = new Object[INITIAL_CAPACITY];
+        used = new boolean[INITIAL_CAPACITY];
+        tree = new int[INITIAL_CAPACITY + 1];
+        elementSlots = new HashMap<>();
+        duplicatedSlots = new HashMap<>();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T get(int index) {
+        return (T) slots[getSlot(index)];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public T set(int index, T element) {
+        final int slot = getSlot(index);
+        @SuppressWarnings("unchecked")
+        final T currentElement = (T) slots[slot];
+        slots[slot] = element;
+        unregister(currentElement, slot);
+        register(element, slot);
+        return currentElement;
+    }
+
+    @Override
+    public boolean add(T element) {
+        if (slotCount == slots.length) {
+            if (size < slotCount / 2) {
+                compact();
+            } else {
+                grow();
+            }
+        }
+        final int slot = slotCount++;
+        slots[slot] = element;
+        used[slot] = true;
+        // A new node covers the range (slot + 1 - lowbit, slot + 1].
+        final int node = slot + 1;
+        tree[node] = 1 + prefixSum(slot) - prefixSum(node - (node & -node));
+        size++;
+        register(element, slot);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        if (index == size) {
+            add(element);
+            return;
+        }
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException();
+        }
+        final Object[] elements = toArray();
+        final Object[] newElements = new Object[elements.length + 1];
+        System.arraycopy(elements, 0, newElements, 0, index);
+        newElements[index] = element;
+        System.arraycopy(elements, index, newElements, index + 1, elements.length - index);
+        rebuild(newElements);
+        modCount++;
+    }
+
+    @Override
+    public T remove(int index) {
+        final int slot = getSlot(index);
+        @SuppressWarnings("unchecked")
+        final T element = (T) slots[slot];
+        slots[slot] = null;
+        used[slot] = false;
+        for (int node = slot + 1; node <= slotCount; node += node & -node) {
+            tree[node]--;
+        }
+        size--;
+        unregister(element, slot);
+        modCount++;
+        return element;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        final int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        final Integer slot = elementSlots.get(o);
+        if (slot == null) {
+            return -1;
+        }
+        return prefixSum(slot);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return elementSlots.containsKey(o);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> elements) {
+        for (T element : elements) {
+            add(element);
+        }
+        return !elements.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        rebuild(new Object[0]);
+        modCount++;
+    }
+
+    @Override
+    public Object[] toArray() {
+        final Object[] elements = new Object[size];
+        int index = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (used[slot]) {
+                elements[index++] = slots[slot];
+            }
+        }
+        return elements;
+    }
+
+    /**
+     * Changes the order of the elements. The new order must contain the same
+     * elements, so the map is updated without creating new entries.
+     *
+     * @param elements
+     */
+    void reorder(List<? extends T> elements) {
+        if (elements.size() != size || !duplicatedSlots.isEmpty()) {
+            rebuild(elements.toArray());
+        } else {
+            rebuildSlots(elements.toArray());
+            for (int slot = 0; slot < slotCount; slot++) {
+                @SuppressWarnings("unchecked")
+                final T element = (T) slots[slot];
+                elementSlots.put(element, slot);
+            }
+        }
+        modCount++;
+    }
+
+    /**
+     * Slot of the element at the given position: the first slot with
+     * 'index + 1' used slots until it, included.
+     *
+     * @param index
+     * @return
+     */
+    private int getSlot(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (size == slotCount) {
+            return index;
+        }
+        int node = 0;
+        int remaining = index + 1;
+        for (int step = Integer.highestOneBit(slotCount); step > 0; step >>= 1) {
+            if (node + step <= slotCount && tree[node + step] < remaining) {
+                node += step;
+                remaining -= tree[node];
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Used slots before the given one.
+     *
+     * @param slot
+     * @return
+     */
+    private int prefixSum(int slot) {
+        if (size == slotCount) {
+            return slot;
+        }
+        int sum = 0;
+        for (int node = slot; node > 0; node -= node & -node) {
+            sum += tree[node];
+        }
+        return sum;
+    }
+
+    private void register(T element, int slot) {
+        final Integer currentSlot = elementSlots.putIfAbsent(element, slot);
+        if (currentSlot != null) {
+            final TreeSet<Integer> elementSlotSet = duplicatedSlots.computeIfAbsent(element, key -> new TreeSet<>());
+            elementSlotSet.add(currentSlot);
+            elementSlotSet.add(slot);
+            elementSlots.put(element, elementSlotSet.first());
+        }
+    }
+
+    private void unregister(T element, int slot) {
+        final TreeSet<Integer> elementSlotSet = duplicatedSlots.get(element);
+        if (elementSlotSet == null) {
+            elementSlots.remove(element);
+            return;
+        }
+        elementSlotSet.remove(slot);
+        elementSlots.put(element, elementSlotSet.first());
+        if (elementSlotSet.size() == 1) {
+            duplicatedSlots.remove(element);
+        }
+    }
+
+    private void rebuildElementSlots() {
+        elementSlots.clear();
+        duplicatedSlots.clear();
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (used[slot]) {
+                @SuppressWarnings("unchecked")
+                final T element = (T) slots[slot];
+                register(element, slot);
+            }
+        }
+    }
+
+    private void grow() {
+        final int capacity = slots.length * 2;
+        slots = Arrays.copyOf(slots, capacity);
+        used = Arrays.copyOf(used, capacity);
+        tree = Arrays.copyOf(tree, capacity + 1);
+    }
+
+    /**
+     * Removes the empty slots.
+     */
+    private void compact() {
+        rebuild(toArray());
+    }
+
+    private void rebuild(Object[] elements) {
+        rebuildSlots(elements);
+        rebuildElementSlots();
+    }
+
+    /**
+     * Stores the elements in the first slots, without empty slots.
+     *
+     * @param elements
+     */
+    private void rebuildSlots(Object[] elements) {
+        final int capacity = Math.max(INITIAL_CAPACITY, elements.length * 2);
+        slots = Arrays.copyOf(elements, capacity);
+        used = new boolean[capacity];
+        Arrays.fill(used, 0, elements.length, true);
+        // Linear construction of the Fenwick tree.
+        tree = new int[capacity + 1];
+        for (int node = 1; node <= elements.length; node++) {
+            tree[node]++;
+            final int parent = node + (node & -node);
+            if (parent <= elements.length) {
+                tree[parent] += tree[node];
+            }
+        }
+        slotCount = elements.length;
+        size = elements.length;
+    }
+}
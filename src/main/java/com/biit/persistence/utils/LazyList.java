@@ -21,6 +21,8 @@ package com.biit.persistence.utils;
  * #L%
  */
 
+import com.biit.persistence.logger.StorableObjectLogger;
+
 import java.io.Serializable;
 import java.util.AbstractList;
 import java.util.ArrayList;
@@ -28,7 +30,13 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 public class LazyList<T> extends AbstractList<T> implements Serializable {
     private static final long serialVersionUID = 7107564701510121074L;
@@ -78,6 +86,44 @@ public class LazyList<T> extends AbstractList<T> implements Serializable {
          * @return
          */
         int compare(T first, T second);
+
+        /**
+         * Compares as {@link #compare(Object, Object)} using the order
+         * defined with property/order, the one used to fetch the entities.
+         *
+         * @param first
+         * @param second
+         * @param propertyNames
+         * @param order
+         * @return
+         */
+        default int compare(T first, T second, String[] propertyNames, Order[] order) {
+            return compare(first, second);
+        }
+    }
+
+    /**
+     * Interface via the LazyList retrieves entities using keyset pagination:
+     * a page is obtained seeking the elements that follow the last element of
+     * the previous page, instead of skipping 'firstRow' rows. Used when the
+     * previous page is cached.
+     *
+     * @param <T>
+     */
+    public interface PagingKeysetProvider<T> extends Serializable {
+
+        /**
+         * Fetches entities from the backend that follow the given element
+         * using the order defined with property/order.
+         *
+         * @param lastElement   last element of the previous page, or null to get the first page.
+         * @param total         is the number of rows that should be fetched.
+         * @param propertyNames
+         * @param order
+         * @return the entities, or null if the keyset cannot be used and the
+         * page must be retrieved by its first row.
+         */
+        List<T> getEntitiesAfter(T lastElement, int total, String[] propertyNames, Order[] order);
     }
 
     /**
@@ -99,6 +145,9 @@ public class LazyList<T> extends AbstractList<T> implements Serializable {
     public interface OrdedEntityProvider<T> extends EntityProvider<T>, PagingOrderedProvider<T> {
     }
 
+    public interface KeysetEntityProvider<T> extends OrdedEntityProvider<T>, PagingKeysetProvider<T> {
+    }
+
     public interface LazyListChanged<T> {
         void collectionChanged(LazyList<T> changedList);
     }
@@ -106,14 +155,14 @@ public class LazyList<T> extends AbstractList<T> implements Serializable {
     // Configuration params
     private final PagingOrderedProvider<T> pageOrderedProvider;
     private final PagingProvider<T> pageProvider;
+    private final PagingKeysetProvider<T> pageKeysetProvider;
     private final CountProvider countProvider;
     private final int pageSize;
-    private final int maxPages;
 
-    private List<LazyListPage<T>> cachedPages;
+    // Pages by page number.
+    private final LruCache<Integer, LazyListPage<T>> cachedPages;
     private final HashSet<T> cachedElements;
 
-    private int pageIndex = -1;
     private Integer cachedSize;
 
     private final List<LazyListChanged<T>> lazyListChangedListeners;
@@ -121,15 +170,26 @@ public class LazyList<T> extends AbstractList<T> implements Serializable {
     private String[] propertyNames;
     private Order[] order;
 
+    // Read-ahead of pages.
+    private transient Executor prefetchExecutor;
+    private int prefetchPages = 0;
+    private int lastRequestedPage = -1;
+    private transient Map<Integer, CompletableFuture<List<T>>> pendingPages;
+
     public LazyList(PagingOrderedProvider<T> pageOrderedProvider, PagingProvider<T> pageProvider,
                     CountProvider countProvider, int pageSize, int maxPages) {
+        this(pageOrderedProvider, pageProvider, null, countProvider, pageSize, maxPages);
+    }
+
+    public LazyList(PagingOrderedProvider<T> pageOrderedProvider, PagingProvider<T> pageProvider,
+                    PagingKeysetProvider<T> pageKeysetProvider, CountProvider countProvider, int pageSize, int maxPages) {
         this.pageOrderedProvider = pageOrderedProvider;
         this.pageProvider = pageProvider;
+        this.pageKeysetProvider = pageKeysetProvider;
         this.countProvider = countProvider;
         this.pageSize = pageSize;
-        this.maxPages = maxPages;
 
-        cachedPages = new ArrayList<>();
+        cachedPages = new LruCache<>(maxPages, (pageNumber, page) -> removeCachedElements(page));
         cachedElements = new HashSet<>();
         lazyListChangedListeners = new ArrayList<>();
     }
@@ -138,6 +198,17 @@ public class LazyList<T> extends AbstractList<T> implements Serializable {
         return pageOrderedProvider;
     }
 
+    /**
+     * Compares two elements with the current sort of the list.
+     *
+     * @param first
+     * @param second
+     * @return
+     */
+    protected int compareElements(T first, T second) {
+        return pageOrderedProvider.compare(first, second, propertyNames, order);
+    }
+
     public LazyList(EntityProvider<T> entityProvider, int pageSize, int maxPages) {
         this(null, entityProvider, entityProvider, pageSize, maxPages);
     }
@@ -146,66 +217,142 @@ public class LazyList<T> extends AbstractList<T> implements Serializable {
         this(entityProvider, entityProvider, entityProvider, pageSize, maxPages);
     }
 
+    public LazyList(KeysetEntityProvider<T> entityProvider, int pageSize, int maxPages) {
+        this(entityProvider, entityProvider, entityProvider, entityProvider, pageSize, maxPages);
+    }
+
     @Override
     public T get(int index) {
         if (index < 0 || index >= size()) {
             throw new IndexOutOfBoundsException();
         }
+        return getBackendElement(index);
+    }
+
+    /**
+     * Gets the element at the given position of the backend.
+     *
+     * @param index
+     * @return
+     */
+    protected T getBackendElement(int index) {
+        if (index < 0 || index >= getBackendSize()) {
+            throw new IndexOutOfBoundsException();
+        }
 
         // Get pageIndex and index in the page
         final int pageIndexForReqest = index / pageSize;
         final int indexOnPage = index % pageSize;
 
         // Find page from cache
-        LazyListPage<T> page = getPage(pageIndexForReqest);
+        LazyListPage<T> page = cachedPages.get(pageIndexForReqest);
 
         if (page == null) {
             page = loadPage(pageIndexForReqest);
         }
+        // Sequential access detected.
+        if (pageIndexForReqest == lastRequestedPage + 1) {
+            prefetch(pageIndexForReqest);
+        }
+        lastRequestedPage = pageIndexForReqest;
         final T get = page.get(indexOnPage);
         return get;
     }
 
     private LazyListPage<T> loadPage(int pageIndexForReqest) {
-        // Create a new page
-        final LazyListPage<T> newPage = new LazyListPage<>(pageIndexForReqest, findEntities(pageIndexForReqest * pageSize));
-        cachedPages.add(newPage);
-        // Balance the cache if exceeded maxPage number
-        if (cachedPages.size() >= maxPages) {
-            final int index = cachedPages.indexOf(newPage);
-            balanceCachePages(index);
+        // Use the prefetched content if any.
+        List<T> entities = null;
+        final CompletableFuture<List<T>> pendingPage = getPendingPages().remove(pageIndexForReqest);
+        if (pendingPage != null) {
+            try {
+                entities = pendingPage.join();
+            } catch (CancellationException e) {
+                // Discarded on purpose, as a miss. The page is loaded again.
+            } catch (CompletionException e) {
+                StorableObjectLogger.errorMessage(this.getClass().getName(), e.getCause() != null ? e.getCause() : e);
+            }
+        }
+        if (entities == null) {
+            entities = fetchEntities(pageIndexForReqest, null);
         }
-        return null;
+        // Create a new page
+        final LazyListPage<T> newPage = new LazyListPage<>(pageIndexForReqest, registerEntities(entities));
+        // If exceeded maxPage number, the least recently used page is discarded.
+        cachedPages.put(pageIndexForReqest, newPage);
+        return newPage;
     }
 
-    private void balanceCachePages(int index) {
-        if (index < (maxPages / 2)) {
-            // remove last page
-            removeCachedElements(cachedPages.get(cachedPages.size() - 1));
-            cachedPages.remove(cachedPages.size() - 1);
-        } else {
-            removeCachedElements(cachedPages.get(0));
-            cachedPages.remove(0);
+    /**
+     * Requests to the backend the next pages after the current one, if not
+     * already cached or requested.
+     *
+     * @param currentPage
+     */
+    private void prefetch(int currentPage) {
+        if (prefetchExecutor == null || prefetchPages < 1) {
+            return;
+        }
+        final Map<Integer, CompletableFuture<List<T>>> pending = getPendingPages();
+        // Discard requests that are not going to be used.
+        pending.entrySet().removeIf(entry -> {
+            if (entry.getKey() < currentPage || entry.getKey() > currentPage + prefetchPages) {
+                entry.getValue().cancel(false);
+                return true;
+            }
+            return false;
+        });
+        for (int nextPage = currentPage + 1; nextPage <= currentPage + prefetchPages; nextPage++) {
+            if (nextPage * pageSize >= getBackendSize()) {
+                break;
+            }
+            if (!cachedPages.containsKey(nextPage)) {
+                pending.computeIfAbsent(nextPage, this::requestPage);
+            }
         }
     }
 
-    private LazyListPage<T> getPage(int pageIndexForReqest) {
-        // TODO optimize with binary search
-        for (LazyListPage<T> page : cachedPages) {
-            if (page.getPageNumber() == pageIndex) {
-                return page;
-            }
+    private CompletableFuture<List<T>> requestPage(int pageNumber) {
+        // With keyset pagination, a page waits for the previous one to seek from its last element.
+        final CompletableFuture<List<T>> previousPage = pageKeysetProvider == null ? null : getPendingPages().get(pageNumber - 1);
+        if (previousPage != null) {
+            return previousPage.thenApplyAsync(previousContent -> fetchEntities(pageNumber, previousContent), prefetchExecutor);
         }
-        return null;
+        return CompletableFuture.supplyAsync(() -> fetchEntities(pageNumber, null), prefetchExecutor);
     }
 
-    private List<T> findEntities(int firstRow) {
-        final List<T> page;
+    /**
+     * Gets the content of a page from the backend. Uses keyset pagination if
+     * available and the previous page is known.
+     *
+     * @param pageNumber
+     * @param previousPage content of the previous page if not cached yet, or null.
+     * @return
+     */
+    private List<T> fetchEntities(int pageNumber, List<T> previousPage) {
+        if (pageKeysetProvider != null) {
+            List<T> previousContent = previousPage;
+            if (previousContent == null && pageNumber > 0) {
+                final LazyListPage<T> cachedPage = cachedPages.peek(pageNumber - 1);
+                if (cachedPage != null) {
+                    previousContent = cachedPage.getContent();
+                }
+            }
+            if (pageNumber == 0 || (previousContent != null && !previousContent.isEmpty())) {
+                final List<T> page = pageKeysetProvider.getEntitiesAfter(pageNumber == 0 ? null
+                        : previousContent.get(previousContent.size() - 1), pageSize, propertyNames, order);
+                if (page != null) {
+                    return page;
+                }
+            }
+        }
+        final int firstRow = pageNumber * pageSize;
         if (pageOrderedProvider == null) {
-            page = pageProvider.getEntities(firstRow, pageSize);
-        } else {
-            page = pageOrderedProvider.getEntities(firstRow, pageSize, propertyNames, order);
+            return pageProvider.getEntities(firstRow, pageSize);
         }
+        return pageOrderedProvider.getEntities(firstRow, pageSize, propertyNames, order);
+    }
+
+    private List<T> registerEntities(List<T> page) {
         // Check that none of the elements in the page are already contained. If
         // a element recovered is in the current cache that means that the
         // collection in the database has changed
@@ -228,6 +375,15 @@ public class LazyList<T> extends AbstractList<T> implements Serializable {
 
     @Override
     public int size() {
+        return getBackendSize();
+    }
+
+    /**
+     * Number of elements in the backend.
+     *
+     * @return
+     */
+    protected int getBackendSize() {
         // If size is not cached, query database.
         if (cachedSize == null) {
             cachedSize = countProvider.size();
@@ -238,11 +394,17 @@ public class LazyList<T> extends AbstractList<T> implements Serializable {
     private void removeCachedElements(LazyListPage<T> page) {
         for (T element : page.getContent()) {
             cachedElements.remove(element);
-            indexCache.remove(element);
+            if (indexCache != null) {
+                indexCache.remove(element);
+            }
         }
     }
 
     public void clearCache() {
+        if (pendingPages != null) {
+            pendingPages.values().forEach(pendingPage -> pendingPage.cancel(false));
+            pendingPages.clear();
+        }
         cachedPages.clear();
         cachedElements.clear();
         if (indexCache != null) {
@@ -250,6 +412,55 @@ public class LazyList<T> extends AbstractList<T> implements Serializable {
         }
     }
 
+    /**
+     * Enables read-ahead of pages. When the list is accessed sequentially, the
+     * next 'pagesAhead' pages are requested to the backend using the executor,
+     * overlapping the backend latency with the consumption of the current
+     * page. The providers must support being called from the executor
+     * threads.
+     *
+     * @param executor   i.e. a virtual thread executor.
+     * @param pagesAhead number of pages to request in advance.
+     */
+    public void enablePrefetch(Executor executor, int pagesAhead) {
+        this.prefetchExecutor = executor;
+        this.prefetchPages = pagesAhead;
+    }
+
+    public void disablePrefetch() {
+        this.prefetchExecutor = null;
+        this.prefetchPages = 0;
+        if (pendingPages != null) {
+            pendingPages.values().forEach(pendingPage -> pendingPage.cancel(false));
+            pendingPages.clear();
+        }
+    }
+
+    private Map<Integer, CompletableFuture<List<T>>> getPendingPages() {
+        if (pendingPages == null) {
+            pendingPages = new ConcurrentHashMap<>();
+        }
+        return pendingPages;
+    }
+
+    /**
+     * Number of accesses to an element already loaded.
+     *
+     * @return
+     */
+    public long getCacheHitCount() {
+        return cachedPages.getHitCount();
+    }
+
+    /**
+     * Number of accesses to an element that needed a backend query.
+     *
+     * @return
+     */
+    public long getCacheMissCount() {
+        return cachedPages.getMissCount();
+    }
+
     public void addLazyListChangedListener(LazyListChanged<T> listener) {
         lazyListChangedListeners.add(listener);
     }
@@ -271,15 +482,46 @@ public class LazyList<T> extends AbstractList<T> implements Serializable {
         return indexCache;
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public int indexOf(Object o) {
+        return getBackendIndex(o);
+    }
+
+    /**
+     * Gets the position of the element in the backend. Elements not in a
+     * cached page are searched reading the backend from the first row.
+     *
+     * @param o
+     * @return the position or -1 if not found.
+     */
+    protected int getBackendIndex(Object o) {
+        final int cachedIndex = getCachedBackendIndex(o);
+        if (cachedIndex >= 0) {
+            return cachedIndex;
+        }
+        for (int i = 0; i < getBackendSize(); i++) {
+            if (Objects.equals(getBackendElement(i), o)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the position of the element in the backend only if it is in a
+     * cached page. The backend is not accessed.
+     *
+     * @param o
+     * @return the position or -1 if not found.
+     */
+    @SuppressWarnings("unchecked")
+    protected int getCachedBackendIndex(Object o) {
         // optimize: check the cached pages first
         Integer indexViaCache = getIndexCache().get(o);
         if (indexViaCache != null) {
             return indexViaCache;
         }
-        for (LazyListPage<T> page : cachedPages) {
+        for (LazyListPage<T> page : cachedPages.values()) {
             final int indexInPage = page.getContent().indexOf(o);
             if (indexInPage != -1) {
                 indexViaCache = page.getPageNumber() * pageSize + indexInPage;
@@ -287,19 +529,19 @@ public class LazyList<T> extends AbstractList<T> implements Serializable {
                 return indexViaCache;
             }
         }
-        return super.indexOf(o);
+        return -1;
     }
 
     @Override
     public boolean contains(Object o) {
         // Although there would be the indexed version, vaadin sometimes calls
         // this. First check caches, then fall back to sluggish iterator :-(
-        for (LazyListPage<T> page : cachedPages) {
+        for (LazyListPage<T> page : cachedPages.values()) {
             if (page.getContent().contains(o)) {
                 return true;
             }
         }
-        return super.contains(o);
+        return getBackendIndex(o) >= 0;
     }
 
     @Override
@@ -328,8 +570,9 @@ public class LazyList<T> extends AbstractList<T> implements Serializable {
     }
 
     public void sort(String[] propertyNames, Order[] order) {
-        this.propertyNames = propertyNames;
-        this.order = order;
+        // Copies, as the pages are fetched and compared with them later.
+        this.propertyNames = propertyNames == null ? null : propertyNames.clone();
+        this.order = order == null ? null : order.clone();
         if (pageOrderedProvider != null) {
             clearCache();
             fireLazyListChangedListeners();
@@ -0,0 +1,162 @@
+package com.biit.persistence.utils;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thread safe map with a max number of elements. When full, the least
+ * recently used element is discarded. Counts the hits and misses of the
+ * cache.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the cached values.
+ */
+public class LruCache<K, V> implements Serializable {
+    private static final long serialVersionUID = -2853604471291853817L;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final int maxSize;
+    private final LinkedHashMap<K, V> elements;
+    private final ICacheEvictionListener<K, V> evictionListener;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public LruCache(int maxSize) {
+        this(maxSize, null);
+    }
+
+    public LruCache(int maxSize, ICacheEvictionListener<K, V> evictionListener) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be a positive number.");
+        }
+        this.maxSize = maxSize;
+        this.evictionListener = evictionListener;
+        this.elements = new LinkedHashMap<>(16, LOAD_FACTOR, true) {
+            private static final long serialVersionUID = 6305262945466862387L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictions++;
+                    if (LruCache.this.evictionListener != null) {
+                        LruCache.this.evictionListener.evicted(eldest.getKey(), eldest.getValue());
+                    }
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets a cached value and updates the hit/miss counters.
+     *
+     * @param key
+     * @return the value or null if not cached.
+     */
+    public synchronized V get(K key) {
+        final V value = elements.get(key);
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    /**
+     * Gets a cached value without updating the hit/miss counters.
+     *
+     * @param key
+     * @return the value or null if not cached.
+     */
+    public synchronized V peek(K key) {
+        return elements.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        elements.put(key, value);
+    }
+
+    public synchronized V remove(K key) {
+        return elements.remove(key);
+    }
+
+    public synchronized boolean containsKey(K key) {
+        return elements.containsKey(key);
+    }
+
+    public synchronized void clear() {
+        elements.clear();
+    }
+
+    /**
+     * Copy of the cached values, from the least to the most recently used.
+     *
+     * @return
+     */
+    public synchronized List<V> values() {
+        return new ArrayList<>(elements.values());
+    }
+
+    public synchronized int size() {
+        return elements.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Ratio of hits against all requests.
+     *
+     * @return a value between 0 and 1.
+     */
+    public synchronized double getHitRate() {
+        final long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    public synchronized void resetStatistics() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+}
@@ -0,0 +1,91 @@
+package com.biit.persistence.utils;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Function;
+
+/**
+ * Creates functions that read a property of a bean without using
+ * reflection on each call. The getter is compiled once into a lambda when the
+ * class is visible from this library, or into a method handle if not.
+ */
+public final class PropertyAccessorFactory {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType GENERIC_GETTER = MethodType.methodType(Object.class, Object.class);
+
+    private PropertyAccessorFactory() {
+        // Private constructor to hide the implicit public one.
+    }
+
+    /**
+     * Creates a function that executes the given getter.
+     *
+     * @param readMethod a public getter without parameters.
+     * @return
+     * @throws IllegalAccessException if the getter is not accessible.
+     */
+    @SuppressWarnings("unchecked")
+    public static Function<Object, Object> getAccessor(Method readMethod) throws IllegalAccessException {
+        final MethodHandle getter = LOOKUP.unreflect(readMethod);
+        if (isVisible(readMethod.getDeclaringClass())) {
+            try {
+                final CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "apply", MethodType.methodType(Function.class),
+                        GENERIC_GETTER, getter, getter.type().wrap());
+                return (Function<Object, Object>) callSite.getTarget().invokeExact();
+            } catch (Throwable e) {
+                // Use the method handle.
+            }
+        }
+        final MethodHandle genericGetter = getter.asType(GENERIC_GETTER);
+        return bean -> {
+            try {
+                return genericGetter.invokeExact(bean);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    /**
+     * The generated lambda is defined in the class loader of this library,
+     * and must be able to link the bean class.
+     */
+    private static boolean isVisible(Class<?> beanClass) {
+        if (!Modifier.isPublic(beanClass.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(beanClass.getName(), false, PropertyAccessorFactory.class.getClassLoader()) == beanClass;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
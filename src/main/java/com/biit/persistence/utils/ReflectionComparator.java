@@ -26,78 +26,364 @@ import com.biit.persistence.logger.StorableObjectLogger;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
-import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
+/**
+ * Compares beans by a list of properties. Getters are resolved and compiled
+ * when the comparator is created. Use {@link ComparatorFactory} to reuse the
+ * comparators. Null values go first in ascending order.
+ *
+ * @param <T>
+ */
 public class ReflectionComparator<T> implements Comparator<T> {
 
     private final Object[] propertyId;
     private final boolean[] ascending;
-    private final HashMap<String, PropertyDescriptor> propertyDescriptors;
+    private final List<Function<Object, Object>> accessors;
+    private final List<Boolean> accessorsAscending;
 
     public ReflectionComparator(Class<T> clazz, Object[] propertyId, boolean[] ascending) throws IntrospectionException {
         super();
-        this.propertyId = propertyId;
-        this.ascending = ascending;
-        this.propertyDescriptors = new HashMap<>();
+        this.propertyId = Arrays.copyOf(propertyId, propertyId.length);
+        this.ascending = Arrays.copyOf(ascending, ascending.length);
+        this.accessors = new ArrayList<>();
+        this.accessorsAscending = new ArrayList<>();
 
+        final HashMap<String, PropertyDescriptor> propertyDescriptors = new HashMap<>();
         for (PropertyDescriptor pd : Introspector.getBeanInfo(clazz, Object.class).getPropertyDescriptors()) {
             propertyDescriptors.put(pd.getName(), pd);
         }
+        for (int i = 0; i < propertyId.length && i < ascending.length; i++) {
+            final PropertyDescriptor pd = propertyDescriptors.get(propertyId[i]);
+            if (pd == null || pd.getReadMethod() == null) {
+                continue;
+            }
+            try {
+                accessors.add(PropertyAccessorFactory.getAccessor(pd.getReadMethod()));
+                accessorsAscending.add(ascending[i]);
+            } catch (IllegalAccessException e) {
+                // Ignore and proceed
+                StorableObjectLogger.errorMessage(ReflectionComparator.class.getName(), e);
+            }
+        }
     }
 
-    @SuppressWarnings("rawtypes")
+    @SuppressWarnings({"rawtypes", "unchecked"})
     @Override
     public int compare(T o1, T o2) {
-        for (int i = 0; i < propertyId.length && i < ascending.length; i++) {
-            final PropertyDescriptor pd = propertyDescriptors.get(propertyId[i]);
-            if (pd == null) {
+        for (int i = 0; i < accessors.size(); i++) {
+            final Object property1 = accessors.get(i).apply(o1);
+            final Object property2 = accessors.get(i).apply(o2);
+            final int result;
+            if (property1 == null || property2 == null) {
+                if (property1 == property2) {
+                    continue;
+                }
+                result = property1 == null ? -1 : 1;
+            } else if (property1 instanceof String && property2 instanceof String) {
+                result = ((String) property1).compareToIgnoreCase((String) property2);
+            } else if (property1 instanceof Comparable) {
+                result = ((Comparable) property1).compareTo(property2);
+            } else {
                 continue;
             }
+            if (result != 0) {
+                if (accessorsAscending.get(i)) {
+                    return result;
+                }
+                return result > 0 ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Sorts the elements reading each property only once per element. The
+     * values of each property are replaced by their rank, and when the ranks
+     * and the original position fit in a long, the elements are sorted as an
+     * array of longs (in parallel for big lists). The result is the same as
+     * sorting with this comparator.
+     *
+     * @param elements
+     * @return a new list with the elements sorted.
+     */
+    public List<T> sort(List<? extends T> elements) {
+        final int size = elements.size();
+        final List<SortColumn> columns = new ArrayList<>();
+        for (int i = 0; i < accessors.size(); i++) {
+            final Object[] values = new Object[size];
+            for (int j = 0; j < size; j++) {
+                values[j] = accessors.get(i).apply(elements.get(j));
+            }
+            final SortColumn column = SortColumn.of(values, accessorsAscending.get(i));
+            if (column != null) {
+                columns.add(column);
+            }
+        }
 
-            try {
-                final Object property1 = propertyDescriptors.get(propertyId[i]).getReadMethod().invoke(o1);
-                final Object property2 = propertyDescriptors.get(propertyId[i]).getReadMethod().invoke(o2);
-                if (String.class.isAssignableFrom(property1.getClass())) {
-                    final int result = ((String) property1).compareToIgnoreCase((String) property2);
-                    if (result == 0) {
-                        continue;
-                    } else {
-                        if (ascending[i]) {
-                            return result;
-                        } else {
-                            if (result > 0) {
-                                return -1;
-                            } else {
-                                return 1;
-                            }
-                        }
+        final int[] positions = columns.isEmpty() ? null : getPackedOrder(columns, size);
+        final List<T> sortedElements = new ArrayList<>(size);
+        if (positions != null) {
+            for (int position : positions) {
+                sortedElements.add(elements.get(position));
+            }
+            return sortedElements;
+        }
+
+        final Integer[] boxedPositions = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            boxedPositions[i] = i;
+        }
+        if (!columns.isEmpty()) {
+            // Stable as Collections.sort(). Small arrays are sorted sequentially.
+            Arrays.parallelSort(boxedPositions, (position1, position2) -> {
+                for (SortColumn column : columns) {
+                    final int result = column.compare(position1, position2);
+                    if (result != 0) {
+                        return result;
                     }
                 }
-                if (Comparable.class.isAssignableFrom(property1.getClass())) {
-                    @SuppressWarnings("unchecked") final int result = ((Comparable) property1).compareTo(property2);
-                    if (result == 0) {
-                        continue;
-                    } else {
-                        if (ascending[i]) {
-                            return result;
-                        } else {
-                            if (result > 0) {
-                                return -1;
-                            } else {
-                                return 1;
-                            }
-                        }
+                return 0;
+            });
+        }
+        for (Integer position : boxedPositions) {
+            sortedElements.add(elements.get(position));
+        }
+        return sortedElements;
+    }
+
+    /**
+     * Sorts the positions as longs that contain the ranks of all columns
+     * and the position, that keeps the sort stable.
+     *
+     * @param columns
+     * @param size
+     * @return the sorted positions or null if the columns cannot be packed.
+     */
+    private static int[] getPackedOrder(List<SortColumn> columns, int size) {
+        final int positionBits = Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(size - 1));
+        int bits = positionBits;
+        for (SortColumn column : columns) {
+            if (!(column instanceof RankColumn)) {
+                return null;
+            }
+            bits += ((RankColumn) column).getBits();
+        }
+        if (bits >= Long.SIZE) {
+            return null;
+        }
+        final long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            long key = 0;
+            for (SortColumn column : columns) {
+                final RankColumn rankColumn = (RankColumn) column;
+                key = (key << rankColumn.getBits()) | rankColumn.getRank(i);
+            }
+            keys[i] = (key << positionBits) | i;
+        }
+        Arrays.parallelSort(keys);
+        final long positionMask = (1L << positionBits) - 1;
+        final int[] positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = (int) (keys[i] & positionMask);
+        }
+        return positions;
+    }
+
+    public Object[] getPropertyId() {
+        return Arrays.copyOf(propertyId, propertyId.length);
+    }
+
+    public boolean[] getAscending() {
+        return Arrays.copyOf(ascending, ascending.length);
+    }
+
+    /**
+     * Values of a property for all elements to sort. Compares two positions
+     * as {@link #compare(Object, Object)} does.
+     */
+    private abstract static class SortColumn {
+
+        /**
+         * Creates the column with the most compact representation of the
+         * values.
+         *
+         * @param values
+         * @param ascending
+         * @return the column or null if there is nothing to compare.
+         */
+        static SortColumn of(Object[] values, boolean ascending) {
+            Class<?> valuesClass = null;
+            for (Object value : values) {
+                if (value != null) {
+                    if (valuesClass == null) {
+                        valuesClass = value.getClass();
+                    } else if (valuesClass != value.getClass()) {
+                        return new ObjectColumn(values, ascending);
                     }
                 }
+            }
+            if (valuesClass == null) {
+                return null;
+            }
+            if (valuesClass == String.class) {
+                return RankColumn.ofStrings(values, ascending);
+            }
+            if (valuesClass == Long.class || valuesClass == Integer.class || valuesClass == Short.class
+                    || valuesClass == Byte.class) {
+                return RankColumn.ofLongs(values, ascending);
+            }
+            if (valuesClass == Double.class || valuesClass == Float.class) {
+                return RankColumn.ofDoubles(values, ascending);
+            }
+            return new ObjectColumn(values, ascending);
+        }
+
+        abstract int compare(int position1, int position2);
+    }
+
+    /**
+     * Column where each value is replaced by its position in the sorted
+     * distinct values. Null values have the lowest rank, or the highest if
+     * descending.
+     */
+    private static final class RankColumn extends SortColumn {
+        private final int[] ranks;
+        private final int bits;
+
+        private RankColumn(int[] ranks, int maxRank, boolean ascending) {
+            this.ranks = ranks;
+            if (!ascending) {
+                for (int i = 0; i < ranks.length; i++) {
+                    ranks[i] = maxRank - ranks[i];
+                }
+            }
+            bits = Integer.SIZE - Integer.numberOfLeadingZeros(maxRank);
+        }
 
-            } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-                // Ignore and proceed
-                StorableObjectLogger.errorMessage(ReflectionComparator.class.getName(), e);
+        static RankColumn ofStrings(Object[] values, boolean ascending) {
+            // Rank of each distinct string, equal ignoring case strings share it.
+            final Map<String, Integer> stringRanks = new HashMap<>();
+            for (Object value : values) {
+                if (value != null) {
+                    stringRanks.put((String) value, 0);
+                }
+            }
+            final String[] distinctValues = stringRanks.keySet().toArray(new String[0]);
+            Arrays.sort(distinctValues, String.CASE_INSENSITIVE_ORDER);
+            int rank = 0;
+            for (int i = 0; i < distinctValues.length; i++) {
+                if (i == 0 || distinctValues[i - 1].compareToIgnoreCase(distinctValues[i]) != 0) {
+                    rank++;
+                }
+                stringRanks.put(distinctValues[i], rank);
             }
+            final int[] ranks = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                ranks[i] = values[i] == null ? 0 : stringRanks.get(values[i]);
+            }
+            return new RankColumn(ranks, rank + 1, ascending);
+        }
 
+        static RankColumn ofLongs(Object[] values, boolean ascending) {
+            final long[] sortedValues = new long[values.length];
+            int count = 0;
+            for (Object value : values) {
+                if (value != null) {
+                    sortedValues[count++] = ((Number) value).longValue();
+                }
+            }
+            Arrays.sort(sortedValues, 0, count);
+            final int distinct = removeDuplicates(sortedValues, count);
+            final int[] ranks = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                ranks[i] = values[i] == null ? 0
+                        : Arrays.binarySearch(sortedValues, 0, distinct, ((Number) values[i]).longValue()) + 1;
+            }
+            return new RankColumn(ranks, distinct + 1, ascending);
+        }
+
+        static RankColumn ofDoubles(Object[] values, boolean ascending) {
+            final double[] sortedValues = new double[values.length];
+            int count = 0;
+            for (Object value : values) {
+                if (value != null) {
+                    sortedValues[count++] = ((Number) value).doubleValue();
+                }
+            }
+            Arrays.sort(sortedValues, 0, count);
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                if (i == 0 || Double.compare(sortedValues[distinct - 1], sortedValues[i]) != 0) {
+                    sortedValues[distinct++] = sortedValues[i];
+                }
+            }
+            final int[] ranks = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                ranks[i] = values[i] == null ? 0
+                        : Arrays.binarySearch(sortedValues, 0, distinct, ((Number) values[i]).doubleValue()) + 1;
+            }
+            return new RankColumn(ranks, distinct + 1, ascending);
+        }
+
+        private static int removeDuplicates(long[] sortedValues, int count) {
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                if (i == 0 || sortedValues[distinct - 1] != sortedValues[i]) {
+                    sortedValues[distinct++] = sortedValues[i];
+                }
+            }
+            return distinct;
+        }
+
+        int getBits() {
+            return bits;
+        }
+
+        int getRank(int position) {
+            return ranks[position];
+        }
+
+        @Override
+        int compare(int position1, int position2) {
+            return Integer.compare(ranks[position1], ranks[position2]);
+        }
+    }
+
+    private static final class ObjectColumn extends SortColumn {
+        private final Object[] values;
+        private final boolean ascending;
+
+        ObjectColumn(Object[] values, boolean ascending) {
+            this.values = values;
+            this.ascending = ascending;
+        }
+
+        @Override
+        int compare(int position1, int position2) {
+            final int result = compareValues(values[position1], values[position2]);
+            if (result == 0 || ascending) {
+                return result;
+            }
+            return result > 0 ? -1 : 1;
+        }
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private static int compareValues(Object value1, Object value2) {
+            if (value1 == null || value2 == null) {
+                return Boolean.compare(value1 != null, value2 != null);
+            } else if (value1 instanceof String && value2 instanceof String) {
+                return ((String) value1).compareToIgnoreCase((String) value2);
+            } else if (value1 instanceof Comparable) {
+                return ((Comparable) value1).compareTo(value2);
+            }
+            return 0;
         }
-        return 0;
     }
 }
@@ -0,0 +1,125 @@
+package com.biit.persistence.utils;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the number of rows of a table during a short time, to avoid a count
+ * query each time a paged view is refreshed. The DAOs invalidate it on their
+ * own writes; changes made by other processes are visible once the time to
+ * live expires.
+ */
+public class RowCountCache implements Serializable {
+    private static final long serialVersionUID = 2460946880914781346L;
+    public static final long DEFAULT_TIME_TO_LIVE = 1000;
+
+    private volatile long timeToLive;
+    private volatile CachedRowCount cachedRowCount = null;
+    // Changed on each invalidation. Counts read before an invalidation are not
+    // stored, as they can be outdated.
+    private final AtomicLong generation = new AtomicLong();
+
+    public RowCountCache() {
+        this(DEFAULT_TIME_TO_LIVE);
+    }
+
+    /**
+     * @param timeToLive in milliseconds. Zero disables the cache.
+     */
+    public RowCountCache(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Gets the cached row count.
+     *
+     * @return the row count or null if not cached or expired.
+     */
+    public Integer get() {
+        final CachedRowCount current = cachedRowCount;
+        if (current == null || StorableObjectClock.currentTimeMillis() >= current.expirationTime) {
+            return null;
+        }
+        return current.rowCount;
+    }
+
+    /**
+     * Must be read before counting the rows and passed to
+     * {@link #put(int, long)}.
+     *
+     * @return
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Stores a row count if the cache has not been invalidated since it was
+     * read.
+     *
+     * @param rowCount
+     * @param generation value of {@link #getGeneration()} before counting.
+     */
+    public void put(int rowCount, long generation) {
+        if (timeToLive <= 0) {
+            return;
+        }
+        final CachedRowCount newRowCount = new CachedRowCount(rowCount, StorableObjectClock.currentTimeMillis() + timeToLive);
+        if (this.generation.get() == generation) {
+            cachedRowCount = newRowCount;
+            // An invalidation could happen while storing it.
+            if (this.generation.get() != generation) {
+                cachedRowCount = null;
+            }
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        cachedRowCount = null;
+    }
+
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * @param timeToLive in milliseconds. Zero disables the cache.
+     */
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+        invalidate();
+    }
+
+    private static final class CachedRowCount implements Serializable {
+        private static final long serialVersionUID = -1236394457311386513L;
+        private final int rowCount;
+        private final long expirationTime;
+
+        private CachedRowCount(int rowCount, long expirationTime) {
+            this.rowCount = rowCount;
+            this.expirationTime = expirationTime;
+        }
+    }
+}
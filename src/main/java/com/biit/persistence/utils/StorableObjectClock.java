@@ -0,0 +1,88 @@
+package com.biit.persistence.utils;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.sql.Timestamp;
+import java.time.Clock;
+
+/**
+ * Source of the creation and update times of the storable objects. Times are
+ * stored with a precision of seconds. The clock can be replaced, i.e. by a
+ * {@link Clock#fixed(java.time.Instant, java.time.ZoneId)} one in tests.
+ */
+public final class StorableObjectClock {
+    private static final long MILLISECONDS_PER_SECOND = 1000L;
+    private static volatile Clock clock = Clock.systemUTC();
+
+    private StorableObjectClock() {
+        // Private constructor to hide the implicit public one.
+    }
+
+    public static Clock getClock() {
+        return clock;
+    }
+
+    public static void setClock(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null.");
+        }
+        StorableObjectClock.clock = clock;
+    }
+
+    /**
+     * Restores the system clock.
+     */
+    public static void reset() {
+        clock = Clock.systemUTC();
+    }
+
+    public static long currentTimeMillis() {
+        return clock.millis();
+    }
+
+    /**
+     * Current time rounded to seconds.
+     *
+     * @return
+     */
+    public static Timestamp now() {
+        return new Timestamp(roundToSeconds(currentTimeMillis()));
+    }
+
+    public static long roundToSeconds(long milliseconds) {
+        return Math.floorDiv(milliseconds, MILLISECONDS_PER_SECOND) * MILLISECONDS_PER_SECOND;
+    }
+
+    /**
+     * Rounds a timestamp to seconds. A new instance is always returned, as
+     * timestamps are mutable. A null timestamp is considered as time 0.
+     *
+     * @param timestamp
+     * @return
+     */
+    public static Timestamp roundToSeconds(Timestamp timestamp) {
+        if (timestamp == null) {
+            return new Timestamp(0);
+        }
+        return new Timestamp(roundToSeconds(timestamp.getTime()));
+    }
+}
@@ -21,6 +21,7 @@ package com.biit.persistence.utils;
  * #L%
  */
 
+import com.biit.persistence.dao.IJpaGenericDao;
 import com.biit.persistence.entity.BaseStorableObject;
 
 public class StorableObjectContainer<T extends BaseStorableObject> extends ContainerList<T> {
@@ -36,4 +37,34 @@ public class StorableObjectContainer<T extends BaseStorableObject> extends Conta
         });
     }
 
+    /**
+     * Creates a paged container.
+     *
+     * @param clazz
+     * @param provider
+     * @param pageSize
+     * @param maxPages
+     */
+    public StorableObjectContainer(Class<T> clazz, StorableObjectProvider<T> provider, int pageSize, int maxPages) {
+        super(clazz, provider, new IKeyGenerator<T>() {
+
+            @Override
+            public Object generate(T object) {
+                return object.getComparationId();
+            }
+        }, pageSize, maxPages);
+    }
+
+    /**
+     * Creates a paged container that sorts and filters the elements in the
+     * database, using a {@link StorableObjectQueryProvider}.
+     *
+     * @param clazz
+     * @param dao
+     * @param pageSize
+     * @param maxPages
+     */
+    public StorableObjectContainer(Class<T> clazz, IJpaGenericDao<T, ?> dao, int pageSize, int maxPages) {
+        this(clazz, new StorableObjectQueryProvider<>(clazz, dao), pageSize, maxPages);
+    }
 }
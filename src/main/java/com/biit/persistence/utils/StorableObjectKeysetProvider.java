@@ -0,0 +1,270 @@
+package com.biit.persistence.utils;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.persistence.dao.IJpaGenericDao;
+import com.biit.persistence.entity.BaseStorableObject;
+import com.biit.persistence.logger.StorableObjectLogger;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * LazyList provider that retrieves the elements using Criteria queries over
+ * a {@link IJpaGenericDao}. Pages after a cached one are obtained by seeking
+ * from its last element (keyset pagination), using the sort properties plus
+ * the id as tie-breaker. Therefore, accessing a deep page costs the same as
+ * the first one. Sort properties must be attributes of the entity. Null
+ * values go first in ascending order, as in {@link #compare(Object, Object)},
+ * and the null precedence is set explicitly in the query. The dao is not
+ * serialized: set it again with {@link #setDao(IJpaGenericDao)} after
+ * deserializing the provider.
+ *
+ * @param <T>
+ */
+public class StorableObjectKeysetProvider<T extends BaseStorableObject> implements LazyList.KeysetEntityProvider<T> {
+    private static final long serialVersionUID = -4061493232384372829L;
+    private static final String ID_PROPERTY = "id";
+
+    private final Class<T> entityClass;
+    private transient IJpaGenericDao<T, ?> dao;
+    private transient Map<String, Function<Object, Object>> accessors;
+
+    public StorableObjectKeysetProvider(Class<T> entityClass, IJpaGenericDao<T, ?> dao) {
+        this.entityClass = entityClass;
+        this.dao = dao;
+    }
+
+    @Override
+    public int size() {
+        return getDao().getRowCount();
+    }
+
+    @Override
+    public List<T> getEntities(int firstRow, int total) {
+        return getEntities(firstRow, total, null, null);
+    }
+
+    @Override
+    public List<T> getEntities(int firstRow, int total, String[] propertyNames, Order[] order) {
+        return find(firstRow, null, total, propertyNames, order);
+    }
+
+    @Override
+    public List<T> getEntitiesAfter(T lastElement, int total, String[] propertyNames, Order[] order) {
+        return find(0, lastElement, total, propertyNames, order);
+    }
+
+    @Override
+    public int compare(T first, T second) {
+        return compare(first, second, null, null);
+    }
+
+    @Override
+    public int compare(T first, T second, String[] propertyNames, Order[] order) {
+        final List<String> keys = getSortKeys(propertyNames, order);
+        final List<Boolean> ascending = getSortDirections(propertyNames, order);
+        final Comparable<?>[] firstValues = getKeyValues(first, keys);
+        final Comparable<?>[] secondValues = getKeyValues(second, keys);
+        for (int i = 0; i < keys.size(); i++) {
+            final int result = compareValues(firstValues[i], secondValues[i]);
+            if (result != 0) {
+                return ascending.get(i) ? result : -result;
+            }
+        }
+        return 0;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private int compareValues(Comparable first, Comparable second) {
+        if (first == null) {
+            return second == null ? 0 : -1;
+        }
+        if (second == null) {
+            return 1;
+        }
+        return first.compareTo(second);
+    }
+
+    /**
+     * Returns the page. If 'lastElement' is not null, the page starts after
+     * it.
+     */
+    private List<T> find(int firstRow, T lastElement, int total, String[] propertyNames, Order[] order) {
+        final List<String> keys = getSortKeys(propertyNames, order);
+        final List<Boolean> ascending = getSortDirections(propertyNames, order);
+
+        final EntityManager entityManager = getDao().getEntityManager();
+        final HibernateCriteriaBuilder criteriaBuilder = entityManager.unwrap(Session.class).getCriteriaBuilder();
+        final CriteriaQuery<T> criteriaQuery = criteriaBuilder.createQuery(entityClass);
+        final Root<T> root = criteriaQuery.from(entityClass);
+        criteriaQuery.select(root);
+
+        if (lastElement != null) {
+            final Comparable<?>[] lastValues = getKeyValues(lastElement, keys);
+            criteriaQuery.where(getSeekPredicate(criteriaBuilder, root, keys, ascending, lastValues));
+        }
+
+        final List<jakarta.persistence.criteria.Order> orders = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            // Nulls are the lowest values.
+            orders.add(ascending.get(i) ? criteriaBuilder.asc(root.get(keys.get(i)), true)
+                    : criteriaBuilder.desc(root.get(keys.get(i)), false));
+        }
+        criteriaQuery.orderBy(orders);
+
+        final TypedQuery<T> query = entityManager.createQuery(criteriaQuery);
+        query.setFirstResult(firstRow);
+        query.setMaxResults(total);
+        return query.getResultList();
+    }
+
+    /**
+     * (k1 > v1) OR (k1 = v1 AND k2 > v2) OR ... using '<' for the descending
+     * properties. As nulls are the lowest values, a null key goes after any
+     * value if descending, and any not null key goes after a null value if
+     * ascending.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate getSeekPredicate(CriteriaBuilder criteriaBuilder, Root<T> root, List<String> keys, List<Boolean> ascending,
+                                       Comparable<?>[] lastValues) {
+        final List<Predicate> alternatives = new ArrayList<>();
+        final List<Predicate> previousKeysEqual = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            final Path<Comparable> path = root.get(keys.get(i));
+            final Comparable value = lastValues[i];
+            final Predicate after;
+            if (ascending.get(i)) {
+                after = value == null ? criteriaBuilder.isNotNull(path) : criteriaBuilder.greaterThan(path, value);
+            } else {
+                // Nothing goes after a null value.
+                after = value == null ? null : criteriaBuilder.or(criteriaBuilder.lessThan(path, value), criteriaBuilder.isNull(path));
+            }
+            if (after != null) {
+                final List<Predicate> alternative = new ArrayList<>(previousKeysEqual);
+                alternative.add(after);
+                alternatives.add(criteriaBuilder.and(alternative.toArray(new Predicate[0])));
+            }
+            previousKeysEqual.add(value == null ? criteriaBuilder.isNull(path) : criteriaBuilder.equal(path, value));
+        }
+        if (alternatives.isEmpty()) {
+            return criteriaBuilder.disjunction();
+        }
+        return criteriaBuilder.or(alternatives.toArray(new Predicate[0]));
+    }
+
+    /**
+     * Sort properties with the id at the end as tie-breaker.
+     */
+    private List<String> getSortKeys(String[] propertyNames, Order[] order) {
+        final List<String> keys = new ArrayList<>();
+        if (propertyNames != null && order != null) {
+            for (int i = 0; i < propertyNames.length && i < order.length; i++) {
+                keys.add(propertyNames[i]);
+            }
+        }
+        if (!keys.contains(ID_PROPERTY)) {
+            keys.add(ID_PROPERTY);
+        }
+        return keys;
+    }
+
+    private List<Boolean> getSortDirections(String[] propertyNames, Order[] order) {
+        final List<Boolean> ascending = new ArrayList<>();
+        boolean hasId = false;
+        if (propertyNames != null && order != null) {
+            for (int i = 0; i < propertyNames.length && i < order.length; i++) {
+                ascending.add(order[i] != Order.DES);
+                hasId = hasId || ID_PROPERTY.equals(propertyNames[i]);
+            }
+        }
+        if (!hasId) {
+            ascending.add(true);
+        }
+        return ascending;
+    }
+
+    private Comparable<?>[] getKeyValues(T element, List<String> keys) {
+        final Comparable<?>[] values = new Comparable<?>[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            values[i] = getValue(element, keys.get(i));
+        }
+        return values;
+    }
+
+    private Comparable<?> getValue(T element, String property) {
+        if (ID_PROPERTY.equals(property)) {
+            return element.getId();
+        }
+        final Function<Object, Object> accessor = getAccessors().get(property);
+        if (accessor == null) {
+            throw new IllegalArgumentException("Property '" + property + "' not found in '" + entityClass.getName() + "'.");
+        }
+        final Object value = accessor.apply(element);
+        if (value != null && !(value instanceof Comparable)) {
+            throw new IllegalArgumentException("Property '" + property + "' of '" + entityClass.getName() + "' is not Comparable.");
+        }
+        return (Comparable<?>) value;
+    }
+
+    private Map<String, Function<Object, Object>> getAccessors() {
+        if (accessors == null) {
+            accessors = new HashMap<>();
+            try {
+                for (PropertyDescriptor pd : Introspector.getBeanInfo(entityClass, Object.class).getPropertyDescriptors()) {
+                    if (pd.getReadMethod() != null) {
+                        accessors.put(pd.getName(), PropertyAccessorFactory.getAccessor(pd.getReadMethod()));
+                    }
+                }
+            } catch (IntrospectionException | IllegalAccessException e) {
+                StorableObjectLogger.errorMessage(this.getClass().getName(), e);
+            }
+        }
+        return accessors;
+    }
+
+    public IJpaGenericDao<T, ?> getDao() {
+        if (dao == null) {
+            throw new IllegalStateException("No dao set for '" + entityClass.getName() + "' after deserialization.");
+        }
+        return dao;
+    }
+
+    public void setDao(IJpaGenericDao<T, ?> dao) {
+        this.dao = dao;
+    }
+}
@@ -21,10 +21,15 @@ package com.biit.persistence.utils;
  * #L%
  */
 
+import com.biit.persistence.dao.IJpaBaseStorableObjectDao;
 import com.biit.persistence.dao.IJpaGenericDao;
 import com.biit.persistence.entity.BaseStorableObject;
 import com.biit.persistence.entity.exceptions.ElementCannotBeRemovedException;
 import com.biit.persistence.logger.StorableObjectLogger;
+import jakarta.persistence.NoResultException;
+
+import java.util.ArrayList;
+import java.util.Collection;
 
 public abstract class StorableObjectProvider<T extends BaseStorableObject> implements IDataProvider<T> {
 
@@ -53,6 +58,68 @@ public abstract class StorableObjectProvider<T extends BaseStorableObject> imple
         }
     }
 
+    @Override
+    public void addAll(Collection<? extends T> elements) {
+        if (!elements.isEmpty()) {
+            dao.inTransaction(() -> dao.makePersistentAll(new ArrayList<>(elements)));
+        }
+    }
+
+    @Override
+    public void updateAll(Collection<? extends T> elements) {
+        if (!elements.isEmpty()) {
+            dao.inTransaction(() -> dao.mergeAll(new ArrayList<>(elements)));
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<? extends T> elements) {
+        if (!elements.isEmpty()) {
+            dao.inTransaction(() -> {
+                try {
+                    dao.makeTransientAll(new ArrayList<>(elements));
+                } catch (ElementCannotBeRemovedException e) {
+                    StorableObjectLogger.errorMessage(this.getClass().getName(), e);
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * All changes are stored in a single transaction, using JDBC batches.
+     */
+    @Override
+    public void commit(Collection<? extends T> removed, Collection<? extends T> updated, Collection<? extends T> added) {
+        dao.inTransaction(() -> {
+            removeAll(removed);
+            updateAll(updated);
+            addAll(added);
+            return null;
+        });
+    }
+
+    /**
+     * Gets the element by its comparationId, if the dao supports it.
+     *
+     * @param key the comparationId.
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public T getByKey(Object key) {
+        if (key == null || !(dao instanceof IJpaBaseStorableObjectDao)) {
+            return null;
+        }
+        return dao.inTransaction(() -> {
+            try {
+                return ((IJpaBaseStorableObjectDao<T, ?>) dao).getByComparatorId(key.toString());
+            } catch (NoResultException e) {
+                return null;
+            }
+        });
+    }
+
     public IJpaGenericDao<T, ?> getDao() {
         return dao;
     }
@@ -0,0 +1,257 @@
+package com.biit.persistence.utils;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.persistence.dao.IJpaGenericDao;
+import com.biit.persistence.entity.BaseStorableObject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Metamodel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Provider that sorts and filters the elements with Criteria queries over a
+ * {@link IJpaGenericDao}. Only the requested rows are retrieved, so it is
+ * intended to be used with a paged container. The id is always added as the
+ * last sort property, so the pages are stable. The order of null values and
+ * the case sensitivity of the sort depend on the database.
+ *
+ * @param <T>
+ */
+public class StorableObjectQueryProvider<T extends BaseStorableObject> extends StorableObjectProvider<T>
+        implements IQueryDataProvider<T> {
+    private static final String ID_PROPERTY = "id";
+    private static final String COMPARATION_ID_PROPERTY = "comparationId";
+    private static final char LIKE_ESCAPE = '\\';
+
+    private final Class<T> entityClass;
+    private final List<String> sortProperties;
+    private final List<Boolean> sortAscending;
+    private final Set<Filter> filters;
+
+    public StorableObjectQueryProvider(Class<T> entityClass, IJpaGenericDao<T, ?> dao) {
+        super(dao);
+        this.entityClass = entityClass;
+        sortProperties = new ArrayList<>();
+        sortAscending = new ArrayList<>();
+        filters = new LinkedHashSet<>();
+    }
+
+    @Override
+    public void sort(Object[] propertyId, boolean[] ascending) {
+        sortProperties.clear();
+        sortAscending.clear();
+        for (int i = 0; i < propertyId.length && i < ascending.length; i++) {
+            sortProperties.add(propertyId[i].toString());
+            sortAscending.add(ascending[i]);
+        }
+    }
+
+    @Override
+    public void addFilter(Filter filter) {
+        filters.add(filter);
+    }
+
+    @Override
+    public void removeFilter(Filter filter) {
+        filters.remove(filter);
+    }
+
+    @Override
+    public void removeAllFilters() {
+        filters.clear();
+    }
+
+    @Override
+    public Collection<Filter> getFilters() {
+        return Collections.unmodifiableCollection(filters);
+    }
+
+    @Override
+    public int size() {
+        if (filters.isEmpty()) {
+            // Uses the cached row count.
+            return getDao().inTransaction(getDao()::getRowCount);
+        }
+        return getDao().inTransaction(() -> {
+            final CriteriaBuilder criteriaBuilder = getDao().getEntityManager().getCriteriaBuilder();
+            final CriteriaQuery<Long> criteriaQuery = criteriaBuilder.createQuery(Long.class);
+            final Root<T> root = criteriaQuery.from(entityClass);
+            criteriaQuery.select(criteriaBuilder.count(root)).where(getPredicates(criteriaBuilder, root, new HashMap<>()));
+            return getDao().getEntityManager().createQuery(criteriaQuery).getSingleResult().intValue();
+        });
+    }
+
+    @Override
+    public List<T> get(int i, int size) {
+        return getDao().inTransaction(() -> {
+            final EntityManager entityManager = getDao().getEntityManager();
+            final CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+            final CriteriaQuery<T> criteriaQuery = criteriaBuilder.createQuery(entityClass);
+            final Root<T> root = criteriaQuery.from(entityClass);
+            final Map<String, Join<?, ?>> joins = new HashMap<>();
+            criteriaQuery.select(root).where(getPredicates(criteriaBuilder, root, joins));
+
+            final List<jakarta.persistence.criteria.Order> orders = new ArrayList<>();
+            for (int j = 0; j < sortProperties.size(); j++) {
+                final Path<?> path = getPath(root, sortProperties.get(j), joins);
+                orders.add(sortAscending.get(j) ? criteriaBuilder.asc(path) : criteriaBuilder.desc(path));
+            }
+            if (!sortProperties.contains(ID_PROPERTY)) {
+                orders.add(criteriaBuilder.asc(root.get(ID_PROPERTY)));
+            }
+            criteriaQuery.orderBy(orders);
+
+            final TypedQuery<T> query = entityManager.createQuery(criteriaQuery);
+            query.setFirstResult(i);
+            query.setMaxResults(size);
+            return query.getResultList();
+        });
+    }
+
+    /**
+     * Gets the element by its comparationId, only if it fulfills the filters.
+     *
+     * @param key the comparationId.
+     * @return
+     */
+    @Override
+    public T getByKey(Object key) {
+        if (filters.isEmpty() || key == null) {
+            return super.getByKey(key);
+        }
+        return getDao().inTransaction(() -> {
+            final CriteriaBuilder criteriaBuilder = getDao().getEntityManager().getCriteriaBuilder();
+            final CriteriaQuery<T> criteriaQuery = criteriaBuilder.createQuery(entityClass);
+            final Root<T> root = criteriaQuery.from(entityClass);
+            final List<Predicate> predicates = new ArrayList<>(List.of(getPredicates(criteriaBuilder, root, new HashMap<>())));
+            predicates.add(criteriaBuilder.equal(root.get(COMPARATION_ID_PROPERTY), key.toString()));
+            criteriaQuery.select(root).where(predicates.toArray(new Predicate[0]));
+            final List<T> elements = getDao().getEntityManager().createQuery(criteriaQuery).getResultList();
+            return elements.isEmpty() ? null : elements.get(0);
+        });
+    }
+
+    private Predicate[] getPredicates(CriteriaBuilder criteriaBuilder, Root<T> root, Map<String, Join<?, ?>> joins) {
+        final List<Predicate> predicates = new ArrayList<>();
+        for (Filter filter : filters) {
+            predicates.add(getPredicate(criteriaBuilder, getPath(root, filter.getPropertyId(), joins), filter));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate getPredicate(CriteriaBuilder criteriaBuilder, Path path, Filter filter) {
+        final Object value = filter.getValue();
+        switch (filter.getOperator()) {
+            case EQUAL:
+                return value == null ? criteriaBuilder.isNull(path) : criteriaBuilder.equal(path, value);
+            case NOT_EQUAL:
+                return value == null ? criteriaBuilder.isNotNull(path) : criteriaBuilder.notEqual(path, value);
+            case GREATER_THAN:
+                return criteriaBuilder.greaterThan(path, (Comparable) value);
+            case GREATER_THAN_OR_EQUAL:
+                return criteriaBuilder.greaterThanOrEqualTo(path, (Comparable) value);
+            case LESS_THAN:
+                return criteriaBuilder.lessThan(path, (Comparable) value);
+            case LESS_THAN_OR_EQUAL:
+                return criteriaBuilder.lessThanOrEqualTo(path, (Comparable) value);
+            case STARTS_WITH:
+                return criteriaBuilder.like(criteriaBuilder.lower((Expression<String>) path),
+                        escapeLike(String.valueOf(value)) + "%", LIKE_ESCAPE);
+            case CONTAINS:
+                return criteriaBuilder.like(criteriaBuilder.lower((Expression<String>) path),
+                        "%" + escapeLike(String.valueOf(value)) + "%", LIKE_ESCAPE);
+            case IS_NULL:
+                return criteriaBuilder.isNull(path);
+            case IS_NOT_NULL:
+                return criteriaBuilder.isNotNull(path);
+            default:
+                throw new IllegalArgumentException("Filter operator '" + filter.getOperator() + "' not supported.");
+        }
+    }
+
+    /**
+     * Lower case text with the LIKE wildcards escaped.
+     */
+    private static String escapeLike(String text) {
+        final StringBuilder escapedText = new StringBuilder(text.length());
+        for (char character : text.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (character == '%' || character == '_' || character == LIKE_ESCAPE) {
+                escapedText.append(LIKE_ESCAPE);
+            }
+            escapedText.append(character);
+        }
+        return escapedText.toString();
+    }
+
+    /**
+     * Path of a property. Properties of related entities can be used with
+     * dots, as 'parent.name'. Related entities are left joined, so elements
+     * without them are not discarded, and each join is shared by all the
+     * properties of the query that use it. Collections are not allowed, as
+     * their joins would repeat the elements in the pages and the count.
+     */
+    private Path<?> getPath(Root<?> root, String property, Map<String, Join<?, ?>> joins) {
+        final Metamodel metamodel = getDao().getEntityManager().getMetamodel();
+        final String[] names = property.split("\\.");
+        Path<?> path = root;
+        String joinPath = null;
+        for (int i = 0; i < names.length - 1; i++) {
+            final String name = names[i];
+            joinPath = joinPath == null ? name : joinPath + "." + name;
+            if (path instanceof From && metamodel.managedType(path.getJavaType()).getAttribute(name).isCollection()) {
+                throw new IllegalArgumentException("Property '" + property + "' goes through the collection '" + joinPath + "'.");
+            }
+            if (path instanceof From && metamodel.managedType(path.getJavaType()).getAttribute(name).isAssociation()) {
+                final From<?, ?> from = (From<?, ?>) path;
+                path = joins.computeIfAbsent(joinPath, key -> from.join(name, JoinType.LEFT));
+            } else {
+                // Embedded values.
+                path = path.get(name);
+            }
+        }
+        return path.get(names[names.length - 1]);
+    }
+
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+}
@@ -0,0 +1,108 @@
+package com.biit.persistence.utils;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * Time ordered UUIDs with the layout of UUID version 7: the first 48 bits are
+ * the Unix time in milliseconds and the rest are random. Ids created in a
+ * later millisecond are greater when compared as strings, so new rows are
+ * inserted at the end of the index instead of in random positions. Ids created
+ * in the same millisecond are not ordered. Random bits are taken from a
+ * {@link SecureRandom} per thread, so ids cannot be guessed and no lock is
+ * shared between threads.
+ */
+public class TimeOrderedUuidGenerationStrategy implements IIdGenerationStrategy {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int UUID_LENGTH = 36;
+    private static final long VERSION = 0x7000L;
+    private static final long VERSION_MASK = 0xFFFL;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final long VARIANT_MASK = 0x3FFFFFFFFFFFFFFFL;
+    private static final int TIMESTAMP_SHIFT = 16;
+    private static final int RANDOM_BYTES = 16;
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(
+            TimeOrderedUuidGenerationStrategy::createRandom);
+
+    @Override
+    public String createId() {
+        // A single call, as each one has a fixed cost in the secure generators.
+        final byte[] randomBytes = new byte[RANDOM_BYTES];
+        RANDOM.get().nextBytes(randomBytes);
+        final long mostSignificantBits = (currentTimeMillis() << TIMESTAMP_SHIFT) | VERSION
+                | (toLong(randomBytes, 0) & VERSION_MASK);
+        final long leastSignificantBits = VARIANT | (toLong(randomBytes, Long.BYTES) & VARIANT_MASK);
+        return format(mostSignificantBits, leastSignificantBits);
+    }
+
+    /**
+     * A self seeded DRBG instance does not share the lock of the native
+     * generator of the platform.
+     */
+    private static SecureRandom createRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private static long toLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + Long.BYTES; i++) {
+            value = (value << Byte.SIZE) | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * Same output as {@link java.util.UUID#toString()} without creating the
+     * UUID object.
+     */
+    private static String format(long mostSignificantBits, long leastSignificantBits) {
+        final char[] chars = new char[UUID_LENGTH];
+        writeHex(chars, 0, mostSignificantBits >>> 32, 8);
+        chars[8] = '-';
+        writeHex(chars, 9, mostSignificantBits >>> 16, 4);
+        chars[13] = '-';
+        writeHex(chars, 14, mostSignificantBits, 4);
+        chars[18] = '-';
+        writeHex(chars, 19, leastSignificantBits >>> 48, 4);
+        chars[23] = '-';
+        writeHex(chars, 24, leastSignificantBits, 12);
+        return new String(chars);
+    }
+
+    private static void writeHex(char[] chars, int offset, long value, int digits) {
+        long remaining = value;
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            chars[i] = HEX_DIGITS[(int) (remaining & 0xF)];
+            remaining >>>= 4;
+        }
+    }
+}
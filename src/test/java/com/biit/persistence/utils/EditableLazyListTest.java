@@ -0,0 +1,242 @@
+package com.biit.persistence.utils;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+@Test(groups = {"editableLazyList"})
+public class EditableLazyListTest {
+    private static final int PAGE_SIZE = 3;
+    private static final int MAX_PAGES = 2;
+
+    /**
+     * Element with a mutable sort value, as an entity.
+     */
+    private static final class Item {
+        private final String name;
+        private int order;
+
+        private Item(String name, int order) {
+            this.name = name;
+            this.order = order;
+        }
+
+        @Override
+        public String toString() {
+            return name + "(" + order + ")";
+        }
+    }
+
+    private static final class ItemProvider implements LazyList.OrdedEntityProvider<Item> {
+        private static final long serialVersionUID = 1L;
+        private final List<Item> items;
+        private final boolean sorted;
+        private int fetchedRows = 0;
+
+        private ItemProvider(List<Item> items) {
+            this(items, false);
+        }
+
+        private ItemProvider(List<Item> items, boolean sorted) {
+            this.items = items;
+            this.sorted = sorted;
+        }
+
+        @Override
+        public List<Item> getEntities(int firstRow, int total) {
+            if (sorted) {
+                // As a database after the changes are stored, the rows are sorted by their current values.
+                items.sort(this::compare);
+            }
+            final List<Item> page = new ArrayList<>(items.subList(Math.min(firstRow, items.size()),
+                    Math.min(firstRow + total, items.size())));
+            fetchedRows += page.size();
+            return page;
+        }
+
+        @Override
+        public List<Item> getEntities(int firstRow, int total, String[] propertyNames, Order[] order) {
+            return getEntities(firstRow, total);
+        }
+
+        @Override
+        public int compare(Item first, Item second) {
+            return Integer.compare(first.order, second.order);
+        }
+
+        @Override
+        public int size() {
+            return items.size();
+        }
+    }
+
+    private static void checkContent(EditableLazyList<Item> list, List<Item> expected) {
+        Assert.assertEquals(list.size(), expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertSame(list.get(i), expected.get(i), "Position " + i);
+            Assert.assertEquals(list.indexOf(expected.get(i)), i);
+        }
+    }
+
+    @Test
+    public void updateChangesBackendOrder() {
+        final Item a = new Item("a", 10);
+        final Item b = new Item("b", 20);
+        final Item c = new Item("c", 30);
+        final Item x = new Item("x", 25);
+        final EditableLazyList<Item> list = new EditableLazyList<>(new ItemProvider(List.of(a, b, c)), PAGE_SIZE, MAX_PAGES);
+        list.add(x);
+        checkContent(list, List.of(a, b, x, c));
+
+        a.order = 40;
+        Assert.assertTrue(list.update(a));
+        checkContent(list, List.of(b, x, c, a));
+
+        a.order = 15;
+        Assert.assertTrue(list.update(a));
+        checkContent(list, List.of(a, b, x, c));
+
+        Assert.assertTrue(list.remove(a));
+        checkContent(list, List.of(b, x, c));
+        Assert.assertFalse(list.contains(a));
+    }
+
+    @Test
+    public void editsDoNotReadTheBackend() {
+        final List<Item> backend = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            backend.add(new Item("b" + i, i * 10));
+        }
+        final ItemProvider provider = new ItemProvider(backend, true);
+        final EditableLazyList<Item> list = new EditableLazyList<>(provider, PAGE_SIZE, MAX_PAGES);
+        final Item removed = list.get(500);
+        final Item updated = list.get(700);
+        list.get(0);
+        list.get(999);
+        provider.fetchedRows = 0;
+        Assert.assertTrue(list.remove(removed));
+        updated.order = 5;
+        Assert.assertTrue(list.update(updated));
+        Assert.assertTrue(provider.fetchedRows < 100, "Rows read: " + provider.fetchedRows);
+
+        // Positions are searched again after a cache clear, not read sequentially.
+        list.clearCache();
+        provider.fetchedRows = 0;
+        Assert.assertEquals(list.size(), 999);
+        Assert.assertSame(list.get(1), updated);
+        Assert.assertEquals(list.indexOf(backend.get(600)), 599);
+        Assert.assertFalse(list.contains(removed));
+        Assert.assertTrue(provider.fetchedRows < 300, "Rows read: " + provider.fetchedRows);
+    }
+
+    @Test
+    public void clearCacheKeepsEdits() {
+        final Item a = new Item("a", 10);
+        final Item b = new Item("b", 20);
+        final Item c = new Item("c", 30);
+        final Item d = new Item("d", 40);
+        final Item x = new Item("x", 35);
+        final List<Item> backend = new ArrayList<>(List.of(a, b, c, d));
+        final EditableLazyList<Item> list = new EditableLazyList<>(new ItemProvider(backend, true), PAGE_SIZE, MAX_PAGES);
+        list.add(x);
+        checkContent(list, List.of(a, b, c, x, d));
+        Assert.assertTrue(list.remove(b));
+        a.order = 50;
+        Assert.assertTrue(list.update(a));
+        checkContent(list, List.of(c, x, d, a));
+
+        list.clearCache();
+        checkContent(list, List.of(c, x, d, a));
+    }
+
+    @Test
+    public void removedElementNotInBackend() {
+        final Item a = new Item("a", 10);
+        final Item b = new Item("b", 20);
+        final Item c = new Item("c", 30);
+        final Item e = new Item("e", 20);
+        final List<Item> backend = new ArrayList<>(List.of(a, b, c));
+        final EditableLazyList<Item> list = new EditableLazyList<>(new ItemProvider(backend), PAGE_SIZE, MAX_PAGES);
+        checkContent(list, List.of(a, b, c));
+        Assert.assertTrue(list.remove(b));
+        checkContent(list, List.of(a, c));
+
+        // Replaced by other user. The removed element cannot be located, and is not discounted from the size.
+        backend.set(1, e);
+        list.clearCache();
+        checkContent(list, List.of(a, e, c));
+        Assert.assertFalse(list.remove(new Item("f", 15)));
+        checkContent(list, List.of(a, e, c));
+    }
+
+    @Test
+    public void randomEdits() {
+        final Random random = new Random(7);
+        for (int round = 0; round < 100; round++) {
+            final Set<Integer> usedOrders = new HashSet<>();
+            final List<Item> backend = new ArrayList<>();
+            final int backendSize = random.nextInt(30);
+            for (int i = 0; i < backendSize; i++) {
+                backend.add(new Item("b" + i, nextOrder(random, usedOrders)));
+            }
+            backend.sort(Comparator.comparingInt(item -> item.order));
+            final EditableLazyList<Item> list = new EditableLazyList<>(new ItemProvider(backend), PAGE_SIZE, MAX_PAGES);
+            final List<Item> expected = new ArrayList<>(backend);
+
+            for (int operation = 0; operation < 60; operation++) {
+                final int type = random.nextInt(3);
+                if (type == 0 || expected.isEmpty()) {
+                    final Item item = new Item("a" + operation, nextOrder(random, usedOrders));
+                    list.add(item);
+                    expected.add(item);
+                } else if (type == 1) {
+                    final Item item = list.get(random.nextInt(expected.size()));
+                    Assert.assertTrue(expected.remove(item));
+                    Assert.assertTrue(list.remove(item));
+                } else {
+                    // Elements are edited once retrieved from the list.
+                    final Item item = list.get(random.nextInt(expected.size()));
+                    item.order = nextOrder(random, usedOrders);
+                    Assert.assertTrue(list.update(item));
+                }
+                expected.sort(Comparator.comparingInt(item -> item.order));
+                checkContent(list, expected);
+            }
+        }
+    }
+
+    private static int nextOrder(Random random, Set<Integer> usedOrders) {
+        int order;
+        do {
+            order = random.nextInt(1000);
+        } while (!usedOrders.add(order));
+        return order;
+    }
+}
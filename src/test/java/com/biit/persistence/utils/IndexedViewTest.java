@@ -0,0 +1,118 @@
+package com.biit.persistence.utils;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+@Test(groups = {"indexedView"})
+public class IndexedViewTest {
+    // Small pool of values, so the lists have duplicated elements.
+    private static final int VALUES = 20;
+
+    private static void checkContent(IndexedView<String> view, List<String> expected) {
+        Assert.assertEquals(view.size(), expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(view.get(i), expected.get(i), "Position " + i);
+        }
+        for (int value = 0; value < VALUES; value++) {
+            final String element = "v" + value;
+            Assert.assertEquals(view.indexOf(element), expected.indexOf(element), element);
+            Assert.assertEquals(view.contains(element), expected.contains(element), element);
+        }
+    }
+
+    @Test
+    public void removeDuplicatedElements() {
+        final IndexedView<String> view = new IndexedView<>();
+        view.addAll(List.of("a", "b", "a", "c", "a"));
+        Assert.assertTrue(view.remove("a"));
+        Assert.assertEquals(view.indexOf("a"), 1);
+        Assert.assertEquals(view.remove(1), "a");
+        Assert.assertEquals(view.indexOf("a"), 2);
+        Assert.assertTrue(view.remove("a"));
+        Assert.assertFalse(view.contains("a"));
+        Assert.assertEquals(new ArrayList<>(view), List.of("b", "c"));
+    }
+
+    @Test
+    public void randomEdits() {
+        final Random random = new Random(11);
+        for (int round = 0; round < 50; round++) {
+            final IndexedView<String> view = new IndexedView<>();
+            final List<String> expected = new ArrayList<>();
+            for (int operation = 0; operation < 200; operation++) {
+                final String element = "v" + random.nextInt(VALUES);
+                final int type = random.nextInt(7);
+                if (type == 0 || expected.isEmpty()) {
+                    view.add(element);
+                    expected.add(element);
+                } else if (type == 1) {
+                    final int index = random.nextInt(expected.size() + 1);
+                    view.add(index, element);
+                    expected.add(index, element);
+                } else if (type == 2) {
+                    final int index = random.nextInt(expected.size());
+                    Assert.assertEquals(view.remove(index), expected.remove(index));
+                } else if (type == 3) {
+                    Assert.assertEquals(view.remove(element), expected.remove(element));
+                } else if (type == 4) {
+                    final int index = random.nextInt(expected.size());
+                    Assert.assertEquals(view.set(index, element), expected.set(index, element));
+                } else if (type == 5) {
+                    Collections.shuffle(expected, random);
+                    view.reorder(expected);
+                } else if (random.nextInt(20) == 0) {
+                    view.clear();
+                    expected.clear();
+                }
+                checkContent(view, expected);
+            }
+        }
+    }
+
+    @Test
+    public void removeUntilEmpty() {
+        final Random random = new Random(13);
+        final List<String> expected = new ArrayList<>();
+        final IndexedView<String> view = new IndexedView<>();
+        for (int i = 0; i < 1000; i++) {
+            final String element = "v" + random.nextInt(VALUES);
+            view.add(element);
+            expected.add(element);
+        }
+        // Many removals leave empty slots that are compacted.
+        while (!expected.isEmpty()) {
+            final int index = random.nextInt(expected.size());
+            Assert.assertEquals(view.remove(index), expected.remove(index));
+            if (expected.size() % 50 == 0) {
+                checkContent(view, expected);
+            }
+        }
+        checkContent(view, expected);
+    }
+}
@@ -0,0 +1,150 @@
+package com.biit.persistence.utils;
+
+/*-
+ * #%L
+ * Form Based Generic Persistence Manager
+ * %%
+ * Copyright (C) 2022 - 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.beans.IntrospectionException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+@Test(groups = {"reflectionComparator"})
+public class ReflectionComparatorTest {
+    private static final String[] NAMES = {"a", "A", "b", "B", "ab", "Ab", "ba", ""};
+
+    public static final class Row {
+        private final String name;
+        private final Integer amount;
+        private final Long code;
+        private final Double weight;
+        private final BigDecimal price;
+
+        private Row(String name, Integer amount, Long code, Double weight, BigDecimal price) {
+            this.name = name;
+            this.amount = amount;
+            this.code = code;
+            this.weight = weight;
+            this.price = price;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Integer getAmount() {
+            return amount;
+        }
+
+        public Long getCode() {
+            return code;
+        }
+
+        public Double getWeight() {
+            return weight;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+    }
+
+    private static <V> V nullable(Random random, V value) {
+        return random.nextInt(5) == 0 ? null : value;
+    }
+
+    private static List<Row> createRows(Random random, int size, int distinctValues) {
+        final List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            rows.add(new Row(nullable(random, NAMES[random.nextInt(NAMES.length)] + random.nextInt(distinctValues)),
+                    nullable(random, random.nextInt(distinctValues) - distinctValues / 2),
+                    nullable(random, (long) random.nextInt(distinctValues) * Integer.MAX_VALUE),
+                    nullable(random, random.nextInt(distinctValues) / 4.0 - 1),
+                    nullable(random, BigDecimal.valueOf(random.nextInt(distinctValues), 2))));
+        }
+        return rows;
+    }
+
+    private static void checkSort(List<Row> rows, Object[] propertyId, boolean[] ascending) throws IntrospectionException {
+        final ReflectionComparator<Row> comparator = new ReflectionComparator<>(Row.class, propertyId, ascending);
+        final List<Row> expected = new ArrayList<>(rows);
+        expected.sort(comparator);
+        final List<Row> sorted = comparator.sort(rows);
+        Assert.assertEquals(sorted.size(), expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertSame(sorted.get(i), expected.get(i), "Position " + i);
+        }
+    }
+
+    private static boolean[] randomDirections(Random random, int size) {
+        final boolean[] ascending = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            ascending[i] = random.nextBoolean();
+        }
+        return ascending;
+    }
+
+    @Test
+    public void sortSingleProperty() throws IntrospectionException {
+        final Random random = new Random(3);
+        final List<Row> rows = createRows(random, 500, 20);
+        for (String property : new String[]{"name", "amount", "code", "weight", "price"}) {
+            checkSort(rows, new Object[]{property}, new boolean[]{true});
+            checkSort(rows, new Object[]{property}, new boolean[]{false});
+        }
+    }
+
+    @Test
+    public void sortRandomProperties() throws IntrospectionException {
+        final Random random = new Random(5);
+        final String[] properties = {"name", "amount", "code", "weight", "price", "unknown"};
+        for (int round = 0; round < 100; round++) {
+            final List<Row> rows = createRows(random, random.nextInt(300), 1 + random.nextInt(30));
+            final int columns = 1 + random.nextInt(4);
+            final Object[] propertyId = new Object[columns];
+            for (int i = 0; i < columns; i++) {
+                propertyId[i] = properties[random.nextInt(properties.length)];
+            }
+            checkSort(rows, propertyId, randomDirections(random, columns));
+        }
+    }
+
+    @Test
+    public void sortWithoutPacking() throws IntrospectionException {
+        // The ranks of these columns do not fit in a long.
+        final Random random = new Random(9);
+        final List<Row> rows = createRows(random, 20000, 10000);
+        checkSort(rows, new Object[]{"name", "amount", "code", "weight"}, randomDirections(random, 4));
+    }
+
+    @Test
+    public void sortEmptyAndNullColumns() throws IntrospectionException {
+        checkSort(new ArrayList<>(), new Object[]{"name"}, new boolean[]{true});
+        final List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(new Row(null, i % 3, null, null, null));
+        }
+        checkSort(rows, new Object[]{"name", "amount"}, new boolean[]{false, false});
+    }
+}